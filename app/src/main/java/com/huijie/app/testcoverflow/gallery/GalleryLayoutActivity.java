@@ -9,11 +9,11 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.huijie.app.coverflow.viewpager.GalleryLayoutManager;
+import com.huijie.app.coverflow.viewpager.ScrollHelper;
 import com.huijie.app.testcoverflow.DataAdapter;
 import com.huijie.app.testcoverflow.R;
 import com.huijie.app.testcoverflow.Util;
-import com.huijie.app.testcoverflow.test.GalleryLayoutManager;
-import com.huijie.app.testcoverflow.test.ScrollHelper;
 
 /**
  *
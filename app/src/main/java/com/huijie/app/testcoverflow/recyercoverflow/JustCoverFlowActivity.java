@@ -5,9 +5,9 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.huijie.app.coverflow.CoverFlowLayoutManger;
+import com.huijie.app.coverflow.RecyclerCoverFlow;
 import com.huijie.app.testcoverflow.R;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.CoverFlowLayoutManger;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.RecyclerCoverFlow;
 
 public class JustCoverFlowActivity extends AppCompatActivity implements Adapter.onItemClick {
 
@@ -1,252 +0,0 @@
-package com.huijie.app.testcoverflow.recyercoverflow.coverflow;
-
-import android.content.Context;
-import android.hardware.SensorManager;
-import android.util.AttributeSet;
-import android.view.MotionEvent;
-import android.view.ViewConfiguration;
-
-import androidx.annotation.Nullable;
-import androidx.recyclerview.widget.RecyclerView;
-
-/**
- * 继承RecyclerView重写{@link #getChildDrawingOrder(int, int)}对Item的绘制顺序进行控制
- *
- * @author Chen Xiaoping (562818444@qq.com)
- * @version V1.0
- * @Datetime 2017-04-18
- */
-
-public class RecyclerCoverFlow extends RecyclerView {
-
-    private static final float INFLEXION = 0.35f; // Tension lines cross at (INFLEXION, 1)
-    private float mFlingFriction = ViewConfiguration.getScrollFriction();
-    private static float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
-    private float mPhysicalCoeff = 0;
-
-
-    /**
-     * 按下的X轴坐标
-     */
-    private float mDownX;
-
-    /**
-     * 布局器构建者
-     */
-    private CoverFlowLayoutManger.Builder mManagerBuilder;
-
-    public RecyclerCoverFlow(Context context) {
-        super(context);
-        init();
-    }
-
-    public RecyclerCoverFlow(Context context, @Nullable AttributeSet attrs) {
-        super(context, attrs);
-        init();
-    }
-
-    public RecyclerCoverFlow(Context context, @Nullable AttributeSet attrs, int defStyle) {
-        super(context, attrs, defStyle);
-        init();
-    }
-
-    private void init() {
-        createManageBuilder();
-        setLayoutManager(mManagerBuilder.build());
-        //开启重新排序
-        setChildrenDrawingOrderEnabled(true);
-        setOverScrollMode(OVER_SCROLL_NEVER);
-    }
-
-    /**
-     * 创建布局构建器
-     */
-    private void createManageBuilder() {
-        if (mManagerBuilder == null) {
-            mManagerBuilder = new CoverFlowLayoutManger.Builder();
-        }
-    }
-
-    /**
-     * 设置是否为普通平面滚动
-     *
-     * @param isFlat true:平面滚动；false:叠加缩放滚动
-     */
-    public void setFlatFlow(boolean isFlat) {
-        createManageBuilder();
-        mManagerBuilder.setFlat(isFlat);
-        setLayoutManager(mManagerBuilder.build());
-    }
-
-    /**
-     * 设置Item灰度渐变
-     *
-     * @param greyItem true:Item灰度渐变；false:Item灰度不变
-     */
-    public void setGreyItem(boolean greyItem) {
-        createManageBuilder();
-        mManagerBuilder.setGreyItem(greyItem);
-        setLayoutManager(mManagerBuilder.build());
-    }
-
-    /**
-     * 设置Item灰度渐变
-     *
-     * @param alphaItem true:Item半透渐变；false:Item透明度不变
-     */
-    public void setAlphaItem(boolean alphaItem) {
-        createManageBuilder();
-        mManagerBuilder.setAlphaItem(alphaItem);
-        setLayoutManager(mManagerBuilder.build());
-    }
-
-    /**
-     * 设置Item的间隔比例
-     *
-     * @param intervalRatio Item间隔比例。
-     *                      即：item的宽 x intervalRatio
-     */
-    public void setIntervalRatio(float intervalRatio) {
-        createManageBuilder();
-        mManagerBuilder.setIntervalRatio(intervalRatio);
-        setLayoutManager(mManagerBuilder.build());
-    }
-
-    @Override
-    public void setLayoutManager(LayoutManager layout) {
-        if (!(layout instanceof CoverFlowLayoutManger)) {
-            throw new IllegalArgumentException("The layout manager must be CoverFlowLayoutManger");
-        }
-        super.setLayoutManager(layout);
-    }
-
-    @Override
-    protected int getChildDrawingOrder(int childCount, int i) {
-        int center = getCoverFlowLayout().getCenterPosition()
-                - getCoverFlowLayout().getFirstVisiblePosition(); //计算正在显示的所有Item的中间位置
-        if (center < 0) {
-            center = 0;
-        } else if (center > childCount) {
-            center = childCount;
-        }
-        int order;
-        if (i == center) {
-            order = childCount - 1;
-        } else if (i > center) {
-            order = center + childCount - 1 - i;
-        } else {
-            order = i;
-        }
-        return order;
-    }
-
-    /**
-     * 获取LayoutManger，并强制转换为CoverFlowLayoutManger
-     */
-    public CoverFlowLayoutManger getCoverFlowLayout() {
-        return ((CoverFlowLayoutManger) getLayoutManager());
-    }
-
-    /**
-     * 获取被选中的Item位置
-     */
-    public int getSelectedPos() {
-        return getCoverFlowLayout().getSelectedPos();
-    }
-
-    /**
-     * 设置选中监听
-     *
-     * @param l 监听接口
-     */
-    public void setOnItemSelectedListener(CoverFlowLayoutManger.OnSelected l) {
-        getCoverFlowLayout().setOnSelectedListener(l);
-    }
-
-    @Override
-    public boolean dispatchTouchEvent(MotionEvent ev) {
-        switch (ev.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                mDownX = ev.getX();
-                //设置父类不拦截滑动事件
-                getParent().requestDisallowInterceptTouchEvent(true);
-                break;
-            case MotionEvent.ACTION_MOVE:
-                if ((ev.getX() > mDownX && getCoverFlowLayout().getCenterPosition() == 0) ||
-                        (ev.getX() < mDownX && getCoverFlowLayout().getCenterPosition() ==
-                                getCoverFlowLayout().getItemCount() - 1)) {
-                    //如果是滑动到了最前和最后，开放父类滑动事件拦截
-                    getParent().requestDisallowInterceptTouchEvent(false);
-                } else {
-                    //滑动到中间，设置父类不拦截滑动事件
-                    getParent().requestDisallowInterceptTouchEvent(true);
-                }
-                break;
-            default:
-                break;
-        }
-        return super.dispatchTouchEvent(ev);
-    }
-
-    @Override
-    public boolean fling(int velocityX, int velocityY) {
-        //缩小滚动距离
-        int flingX = (int) (velocityX * 0.40f);
-        CoverFlowLayoutManger manger = getCoverFlowLayout();
-        double distance = getSplineFlingDistance(flingX);
-        double newDistance = manger.calculateDistance(velocityX,distance);
-        int fixVelocityX = getVelocity(newDistance);
-        if (velocityX > 0) {
-            flingX = fixVelocityX;
-        } else {
-            flingX = -fixVelocityX;
-        }
-        return super.fling(velocityX, velocityY);
-    }
-
-    /**
-     * 根据松手后的滑动速度计算出fling的距离
-     *
-     * @param velocity
-     * @return
-     */
-    private double getSplineFlingDistance(int velocity) {
-        final double l = getSplineDeceleration(velocity);
-        final double decelMinusOne = DECELERATION_RATE - 1.0;
-        return mFlingFriction * getPhysicalCoeff() * Math.exp(DECELERATION_RATE / decelMinusOne * l);
-    }
-
-    private double getSplineDeceleration(int velocity) {
-        final float ppi = this.getResources().getDisplayMetrics().density * 160.0f;
-        float mPhysicalCoeff = SensorManager.GRAVITY_EARTH // g (m/s^2)
-                * 39.37f // inch/meter
-                * ppi
-                * 0.84f; // look and feel tuning
-
-
-        return Math.log(INFLEXION * Math.abs(velocity) / (mFlingFriction * mPhysicalCoeff));
-    }
-
-    /**
-     * 根据距离计算出速度
-     *
-     * @param distance
-     * @return
-     */
-    private int getVelocity(double distance) {
-        final double decelMinusOne = DECELERATION_RATE - 1.0;
-        double aecel = Math.log(distance / (mFlingFriction * mPhysicalCoeff)) * decelMinusOne / DECELERATION_RATE;
-        return Math.abs((int) (Math.exp(aecel) * (mFlingFriction * mPhysicalCoeff) / INFLEXION));
-    }
-
-    private float getPhysicalCoeff() {
-        if (mPhysicalCoeff == 0) {
-            final float ppi = this.getResources().getDisplayMetrics().density * 160.0f;
-            mPhysicalCoeff = SensorManager.GRAVITY_EARTH // g (m/s^2)
-                    * 39.37f // inch/meter
-                    * ppi
-                    * 0.84f; // look and feel tuning
-        }
-        return mPhysicalCoeff;
-    }
-}
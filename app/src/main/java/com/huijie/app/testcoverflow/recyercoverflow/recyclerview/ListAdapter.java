@@ -7,10 +7,10 @@ import android.widget.TextView;
 
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.huijie.app.coverflow.CoverFlowLayoutManger;
+import com.huijie.app.coverflow.RecyclerCoverFlow;
 import com.huijie.app.testcoverflow.R;
 import com.huijie.app.testcoverflow.recyercoverflow.Adapter;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.CoverFlowLayoutManger;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.RecyclerCoverFlow;
 
 public class ListAdapter extends RecyclerView.Adapter<ListAdapter.ViewHolder> {
 
@@ -47,7 +47,10 @@ public class ListAdapter extends RecyclerView.Adapter<ListAdapter.ViewHolder> {
     }
 
     private void intiCoverFlow(final ViewHolder holder) {
-        holder.coverFlow.setAdapter(new Adapter(holder.itemView.getContext()));
+        if (holder.coverFlow.getAdapter() == null) {
+            //只在第一次绑定时设置Adapter，重新绑定时复用已有的Item，并且外层列表可以提前预取
+            holder.coverFlow.setAdapter(new Adapter(holder.itemView.getContext()));
+        }
         holder.coverFlow.setOnItemSelectedListener(new CoverFlowLayoutManger.OnSelected() {
             @Override
             public void onItemSelected(int position) {
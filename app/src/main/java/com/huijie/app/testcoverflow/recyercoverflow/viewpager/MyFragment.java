@@ -9,10 +9,10 @@ import android.widget.TextView;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.huijie.app.coverflow.CoverFlowLayoutManger;
+import com.huijie.app.coverflow.RecyclerCoverFlow;
 import com.huijie.app.testcoverflow.R;
 import com.huijie.app.testcoverflow.recyercoverflow.Adapter;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.CoverFlowLayoutManger;
-import com.huijie.app.testcoverflow.recyercoverflow.coverflow.RecyclerCoverFlow;
 
 /**
  *
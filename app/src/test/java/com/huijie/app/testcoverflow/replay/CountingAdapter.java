@@ -0,0 +1,106 @@
+package com.huijie.app.testcoverflow.replay;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter with fixed size plain views which counts the view holder callbacks into the current
+ * {@link ReplayStats}
+ */
+public class CountingAdapter extends RecyclerView.Adapter<CountingAdapter.ViewHolder> {
+
+    private final int mItemWidth;
+
+    private final int mItemHeight;
+
+    private final List<Integer> mItems = new ArrayList<>();
+
+    private int mNextId;
+
+    private ReplayStats mStats;
+
+    public CountingAdapter(int itemCount, int itemWidth, int itemHeight) {
+        mItemWidth = itemWidth;
+        mItemHeight = itemHeight;
+        for (int i = 0; i < itemCount; i++) {
+            mItems.add(mNextId++);
+        }
+    }
+
+    void setStats(ReplayStats stats) {
+        mStats = stats;
+    }
+
+    public void insert(int position, int count) {
+        for (int i = 0; i < count; i++) {
+            mItems.add(position + i, mNextId++);
+        }
+        notifyItemRangeInserted(position, count);
+    }
+
+    public void remove(int position, int count) {
+        for (int i = 0; i < count; i++) {
+            mItems.remove(position);
+        }
+        notifyItemRangeRemoved(position, count);
+    }
+
+    public void change(int position, int count) {
+        notifyItemRangeChanged(position, count);
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (mStats != null) {
+            mStats.createViewHolder++;
+        }
+        View view = new View(parent.getContext());
+        view.setLayoutParams(new RecyclerView.LayoutParams(mItemWidth, mItemHeight));
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        if (mStats != null) {
+            mStats.bindViewHolder++;
+        }
+        holder.itemView.setContentDescription(String.valueOf(mItems.get(position)));
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(ViewHolder holder) {
+        if (mStats != null) {
+            mStats.viewsAttached++;
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(ViewHolder holder) {
+        if (mStats != null) {
+            mStats.viewsDetached++;
+        }
+    }
+
+    @Override
+    public void onViewRecycled(ViewHolder holder) {
+        if (mStats != null) {
+            mStats.viewsRecycled++;
+        }
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        ViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.huijie.app.testcoverflow.replay;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stored report of {@link ScrollReplayHarness} which later replays are compared against.
+ * <p>
+ * Baselines are read from the test resources at scroll-replay/&lt;host&gt;.json and have the same
+ * format as the reports. Layout passes, view holder creates and binds, views attached, detached
+ * and recycled, and the average and maximum bytes allocated per frame are compared. A scenario
+ * fails when one of them exceeds the baseline by more than its relative tolerance, and at least its
+ * absolute slack. Allocation depends on the JVM and includes Robolectric's own overhead, so it has a
+ * wider tolerance than the counters. Lower values never fail, refresh the baseline to lock in an
+ * improvement.
+ */
+public class ReplayBaseline {
+
+    /**
+     * Relative growth of a counter over the baseline which is still accepted
+     */
+    static final float COUNT_TOLERANCE = 0.25f;
+
+    /**
+     * Absolute growth of a counter which is always accepted, so that small counters do not fail
+     * on a single extra bind
+     */
+    static final long COUNT_SLACK = 2;
+
+    /**
+     * Relative growth of the allocated bytes which is still accepted
+     */
+    static final float BYTES_TOLERANCE = 0.5f;
+
+    /**
+     * Absolute growth of the allocated bytes per frame which is always accepted
+     */
+    static final long BYTES_SLACK = 4096;
+
+    private static final String[] COUNT_KEYS = {"layoutPasses", "createViewHolder", "bindViewHolder",
+            "viewsAttached", "viewsDetached", "viewsRecycled"};
+
+    private static final String[] BYTES_KEYS = {"bytesPerFrame", "maxBytesPerFrame"};
+
+    private final String mHost;
+
+    private final Map<String, JSONObject> mScenarios = new HashMap<>();
+
+    private ReplayBaseline(String host, JSONObject report) throws JSONException {
+        mHost = host;
+        JSONArray scenarios = report.getJSONArray("scenarios");
+        for (int i = 0; i < scenarios.length(); i++) {
+            JSONObject scenario = scenarios.getJSONObject(i);
+            mScenarios.put(scenario.getString("name"), scenario);
+        }
+    }
+
+    /**
+     * @return the baseline of the host, or null if none is checked in
+     */
+    public static ReplayBaseline load(String host) throws IOException, JSONException {
+        InputStream in = ReplayBaseline.class.getClassLoader()
+                .getResourceAsStream("scroll-replay/" + host + ".json");
+        if (in == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new ReplayBaseline(host, new JSONObject(out.toString("UTF-8")));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return one message per counter which regressed or scenario which has no baseline,
+     * empty if the results are within the tolerance
+     */
+    public List<String> compare(List<ReplayStats> results) throws JSONException {
+        List<String> failures = new ArrayList<>();
+        for (ReplayStats stats : results) {
+            JSONObject baseline = mScenarios.get(stats.name);
+            if (baseline == null) {
+                failures.add(mHost + "/" + stats.name + ": no baseline");
+                continue;
+            }
+            long[] counts = {stats.layoutPasses, stats.createViewHolder, stats.bindViewHolder,
+                    stats.viewsAttached, stats.viewsDetached, stats.viewsRecycled};
+            for (int i = 0; i < COUNT_KEYS.length; i++) {
+                compare(failures, stats.name, baseline, COUNT_KEYS[i], counts[i], COUNT_TOLERANCE, COUNT_SLACK);
+            }
+            long[] bytes = {stats.bytesPerFrame(), stats.maxBytesPerFrame};
+            for (int i = 0; i < BYTES_KEYS.length; i++) {
+                compare(failures, stats.name, baseline, BYTES_KEYS[i], bytes[i], BYTES_TOLERANCE, BYTES_SLACK);
+            }
+        }
+        return failures;
+    }
+
+    private void compare(List<String> failures, String scenario, JSONObject baseline, String key,
+                         long actual, float tolerance, long slack) throws JSONException {
+        long expected = baseline.getLong(key);
+        long allowed = expected + Math.max(slack, (long) Math.ceil(expected * tolerance));
+        if (actual > allowed) {
+            failures.add(mHost + "/" + scenario + ": " + key + " " + actual
+                    + ", baseline " + expected + ", allowed " + allowed);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.huijie.app.testcoverflow.replay;
+
+/**
+ * Counters collected while one scenario is replayed
+ */
+public class ReplayStats {
+
+    public final String name;
+
+    public int frames;
+
+    public int layoutPasses;
+
+    public int createViewHolder;
+
+    public int bindViewHolder;
+
+    public int viewsAttached;
+
+    public int viewsDetached;
+
+    public int viewsRecycled;
+
+    public long bytesAllocated;
+
+    public long maxBytesPerFrame;
+
+    public ReplayStats(String name) {
+        this.name = name;
+    }
+
+    public long bytesPerFrame() {
+        return frames == 0 ? 0 : bytesAllocated / frames;
+    }
+
+    /**
+     * Appends the counters as a JSON object, keys are always written in the same order so that
+     * reports of two runs can be diffed line by line
+     */
+    void appendJson(StringBuilder out, String indent) {
+        out.append(indent).append("{\n");
+        appendField(out, indent, "name", '"' + name + '"', false);
+        appendField(out, indent, "frames", frames, false);
+        appendField(out, indent, "layoutPasses", layoutPasses, false);
+        appendField(out, indent, "createViewHolder", createViewHolder, false);
+        appendField(out, indent, "bindViewHolder", bindViewHolder, false);
+        appendField(out, indent, "viewsAttached", viewsAttached, false);
+        appendField(out, indent, "viewsDetached", viewsDetached, false);
+        appendField(out, indent, "viewsRecycled", viewsRecycled, false);
+        appendField(out, indent, "bytesAllocated", bytesAllocated, false);
+        appendField(out, indent, "bytesPerFrame", bytesPerFrame(), false);
+        appendField(out, indent, "maxBytesPerFrame", maxBytesPerFrame, true);
+        out.append(indent).append('}');
+    }
+
+    private static void appendField(StringBuilder out, String indent, String key, Object value, boolean last) {
+        out.append(indent).append("  \"").append(key).append("\": ").append(value);
+        out.append(last ? "\n" : ",\n");
+    }
+}
@@ -0,0 +1,263 @@
+package com.huijie.app.testcoverflow.replay;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts a RecyclerView under Robolectric and replays scripted gestures frame by frame.
+ * <p>
+ * Every simulated frame advances the main looper's clock by {@link #FRAME_MILLIS}, which runs the
+ * choreographer callbacks, the scroller and the layout traversal due in that frame, so a replay is
+ * deterministic. The counters of each scenario are collected into a {@link ReplayStats} and written
+ * as JSON by {@link #writeReport()}. Allocated bytes are measured on the replay thread and include
+ * Robolectric's own overhead, so they are only meaningful compared with another run of the harness.
+ */
+public class ScrollReplayHarness {
+
+    public static final long FRAME_MILLIS = 16;
+
+    /**
+     * Upper bound of frames to wait for a scroll or an item animation to settle
+     */
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    /**
+     * Longer than the velocity tracker's horizon, so releasing after it does not fling
+     */
+    private static final int HOLD_FRAMES = 8;
+
+    private final String mHost;
+
+    private final List<ReplayStats> mResults = new ArrayList<>();
+
+    private RecyclerView mRecyclerView;
+
+    private CountingAdapter mAdapter;
+
+    private int mWidth;
+
+    private int mHeight;
+
+    private ReplayStats mStats;
+
+    private long mFrameStartBytes;
+
+    public ScrollReplayHarness(String host) {
+        mHost = host;
+    }
+
+    /**
+     * Adds the RecyclerView with a fixed size to the activity and waits for the first layout
+     */
+    public void host(Activity activity, RecyclerView recyclerView, CountingAdapter adapter, int width, int height) {
+        mRecyclerView = recyclerView;
+        mAdapter = adapter;
+        mWidth = width;
+        mHeight = height;
+        FrameLayout content = new FrameLayout(activity);
+        content.addView(recyclerView, new FrameLayout.LayoutParams(width, height));
+        activity.setContentView(content);
+        settle();
+    }
+
+    /**
+     * Called from the hosted RecyclerView's onLayout
+     */
+    public void countLayoutPass() {
+        if (mStats != null) {
+            mStats.layoutPasses++;
+        }
+    }
+
+    public void beginScenario(String name) {
+        mStats = new ReplayStats(name);
+        mAdapter.setStats(mStats);
+        mFrameStartBytes = allocatedBytes();
+    }
+
+    public ReplayStats endScenario() {
+        ReplayStats stats = mStats;
+        mResults.add(stats);
+        mAdapter.setStats(null);
+        mStats = null;
+        return stats;
+    }
+
+    public List<ReplayStats> getResults() {
+        return mResults;
+    }
+
+    public String getHost() {
+        return mHost;
+    }
+
+    /**
+     * Runs one frame, input dispatched since the previous frame is accounted to this one
+     */
+    public void frame() {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        long bytes = allocatedBytes();
+        if (mStats != null) {
+            long frameBytes = bytes - mFrameStartBytes;
+            mStats.frames++;
+            mStats.bytesAllocated += frameBytes;
+            mStats.maxBytesPerFrame = Math.max(mStats.maxBytesPerFrame, frameBytes);
+        }
+        mFrameStartBytes = bytes;
+    }
+
+    public void frames(int count) {
+        for (int i = 0; i < count; i++) {
+            frame();
+        }
+    }
+
+    /**
+     * Runs frames until scrolling, pending layouts and item animations are finished
+     */
+    public void settle() {
+        int frames = 0;
+        do {
+            frame();
+            frames++;
+        } while (frames < MAX_SETTLE_FRAMES && isBusy());
+    }
+
+    private boolean isBusy() {
+        return mRecyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE
+                || mRecyclerView.isLayoutRequested()
+                || mRecyclerView.hasPendingAdapterUpdates()
+                || mRecyclerView.isAnimating();
+    }
+
+    /**
+     * Drags by (dx, dy) over the given number of frames, then holds still and releases without a fling
+     */
+    public void drag(int dx, int dy, int frames) {
+        float x = mWidth / 2f;
+        float y = mHeight / 2f;
+        long downTime = SystemClock.uptimeMillis();
+        touch(downTime, MotionEvent.ACTION_DOWN, x, y);
+        frame();
+        x = move(downTime, x, y, dx, dy, frames);
+        y += dy;
+        frames(HOLD_FRAMES);
+        touch(downTime, MotionEvent.ACTION_MOVE, x, y);
+        touch(downTime, MotionEvent.ACTION_UP, x, y);
+        settle();
+    }
+
+    /**
+     * Drags by (dx, dy) within three frames and releases while moving
+     */
+    public void fling(int dx, int dy) {
+        float x = mWidth / 2f;
+        float y = mHeight / 2f;
+        long downTime = SystemClock.uptimeMillis();
+        touch(downTime, MotionEvent.ACTION_DOWN, x, y);
+        frame();
+        x = move(downTime, x, y, dx, dy, 3);
+        y += dy;
+        touch(downTime, MotionEvent.ACTION_UP, x, y);
+        settle();
+    }
+
+    private float move(long downTime, float x, float y, int dx, int dy, int frames) {
+        for (int i = 1; i <= frames; i++) {
+            touch(downTime, MotionEvent.ACTION_MOVE, x + dx * i / (float) frames, y + dy * i / (float) frames);
+            frame();
+        }
+        return x + dx;
+    }
+
+    private void touch(long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        mRecyclerView.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    public void smoothScrollToPosition(int position) {
+        mRecyclerView.smoothScrollToPosition(position);
+        settle();
+    }
+
+    public void insert(int position, int count) {
+        mAdapter.insert(position, count);
+        settle();
+    }
+
+    public void remove(int position, int count) {
+        mAdapter.remove(position, count);
+        settle();
+    }
+
+    public void change(int position, int count) {
+        mAdapter.change(position, count);
+        settle();
+    }
+
+    public String toJson() {
+        StringBuilder out = new StringBuilder();
+        out.append("{\n");
+        out.append("  \"host\": \"").append(mHost).append("\",\n");
+        out.append("  \"frameMillis\": ").append(FRAME_MILLIS).append(",\n");
+        out.append("  \"scenarios\": [\n");
+        for (int i = 0; i < mResults.size(); i++) {
+            mResults.get(i).appendJson(out, "    ");
+            out.append(i < mResults.size() - 1 ? ",\n" : "\n");
+        }
+        out.append("  ]\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Writes the report to build/reports/scroll-replay/&lt;host&gt;.json, or to the directory given by
+     * the system property scrollReplay.reportDir
+     */
+    public File writeReport() throws IOException {
+        return writeReport(new File(System.getProperty("scrollReplay.reportDir", "build/reports/scroll-replay")));
+    }
+
+    /**
+     * Writes the report to &lt;dir&gt;/&lt;host&gt;.json
+     */
+    public File writeReport(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        File file = new File(dir, mHost + ".json");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
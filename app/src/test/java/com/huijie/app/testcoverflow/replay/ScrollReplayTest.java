@@ -0,0 +1,136 @@
+package com.huijie.app.testcoverflow.replay;
+
+import android.app.Activity;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.huijie.app.coverflow.RecyclerCoverFlow;
+import com.huijie.app.coverflow.viewpager.GalleryLayoutManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Replays the same gestures on RecyclerCoverFlow and on a RecyclerView with GalleryLayoutManager
+ * and writes one report per host, see {@link ScrollReplayHarness#writeReport()}.
+ * <p>
+ * Each report is compared with the baseline in src/test/resources/scroll-replay, see
+ * {@link ReplayBaseline}. Baselines must be measured: run the tests with -PscrollReplay.updateBaseline
+ * on a known good build to record them, and commit the written files. Until a host has a baseline
+ * its comparison is skipped, not passed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ScrollReplayTest {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 600;
+
+    private static final int ITEM_WIDTH = 400;
+
+    private static final int ITEM_HEIGHT = 500;
+
+    private static final int ITEM_COUNT = 100;
+
+    @Test
+    public void replayRecyclerCoverFlow() throws IOException, JSONException {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        final ScrollReplayHarness harness = new ScrollReplayHarness("RecyclerCoverFlow");
+        RecyclerCoverFlow coverFlow = new RecyclerCoverFlow(activity) {
+            @Override
+            protected void onLayout(boolean changed, int l, int t, int r, int b) {
+                harness.countLayoutPass();
+                super.onLayout(changed, l, t, r, b);
+            }
+        };
+        CountingAdapter adapter = new CountingAdapter(ITEM_COUNT, ITEM_WIDTH, ITEM_HEIGHT);
+        coverFlow.setAdapter(adapter);
+        harness.host(activity, coverFlow, adapter, WIDTH, HEIGHT);
+
+        replay(harness);
+        harness.writeReport();
+        check(harness);
+    }
+
+    @Test
+    public void replayGalleryLayoutManager() throws IOException, JSONException {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        final ScrollReplayHarness harness = new ScrollReplayHarness("GalleryLayoutManager");
+        RecyclerView recyclerView = new RecyclerView(activity) {
+            @Override
+            protected void onLayout(boolean changed, int l, int t, int r, int b) {
+                harness.countLayoutPass();
+                super.onLayout(changed, l, t, r, b);
+            }
+        };
+        CountingAdapter adapter = new CountingAdapter(ITEM_COUNT, ITEM_WIDTH, ITEM_HEIGHT);
+        recyclerView.setAdapter(adapter);
+        recyclerView.setLayoutManager(new GalleryLayoutManager(activity, 10));
+        harness.host(activity, recyclerView, adapter, WIDTH, HEIGHT);
+
+        replay(harness);
+        harness.writeReport();
+        check(harness);
+    }
+
+    private static void replay(ScrollReplayHarness harness) {
+        harness.beginScenario("idle");
+        harness.frames(60);
+        harness.endScenario();
+
+        harness.beginScenario("drag");
+        harness.drag(-WIDTH / 2, 0, 30);
+        harness.drag(WIDTH / 4, 0, 15);
+        harness.endScenario();
+
+        harness.beginScenario("fling");
+        harness.fling(-WIDTH, 0);
+        harness.fling(WIDTH, 0);
+        harness.endScenario();
+
+        harness.beginScenario("smoothScrollToPosition");
+        harness.smoothScrollToPosition(ITEM_COUNT / 2);
+        harness.smoothScrollToPosition(5);
+        harness.endScenario();
+
+        harness.beginScenario("adapterUpdates");
+        harness.insert(6, 3);
+        harness.remove(0, 2);
+        harness.change(4, 4);
+        harness.endScenario();
+    }
+
+    private static void check(ScrollReplayHarness harness) throws IOException, JSONException {
+        for (ReplayStats stats : harness.getResults()) {
+            assertTrue(stats.name, stats.frames > 0);
+        }
+        //nothing moves while idle, so nothing should be bound or laid out
+        ReplayStats idle = harness.getResults().get(0);
+        assertEquals(0, idle.bindViewHolder);
+        assertEquals(0, idle.layoutPasses);
+
+        if (Boolean.getBoolean("scrollReplay.updateBaseline")) {
+            harness.writeReport(new File(System.getProperty("scrollReplay.baselineDir")));
+            return;
+        }
+        ReplayBaseline baseline = ReplayBaseline.load(harness.getHost());
+        assumeTrue("no baseline for " + harness.getHost()
+                + ", record one with -PscrollReplay.updateBaseline", baseline != null);
+        List<String> failures = baseline.compare(harness.getResults());
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+}
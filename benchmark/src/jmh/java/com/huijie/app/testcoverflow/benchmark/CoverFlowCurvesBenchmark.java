@@ -0,0 +1,87 @@
+package com.huijie.app.testcoverflow.benchmark;
+
+import com.huijie.app.coverflow.core.CoverFlowCurves;
+import com.huijie.app.coverflow.core.TransformCurve;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The transform curves of CoverFlowLayoutManger, computed directly and looked up in the sampled
+ * {@link TransformCurve}. They only depend on the item offset, not on the item count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoverFlowCurvesBenchmark {
+
+    private static final int SPACE = 1080;
+
+    private static final int ITEM_SIZE = 200;
+
+    private static final float INTERVAL_RATIO = 0.5f;
+
+    private static final int CENTER_START = (SPACE - ITEM_SIZE) / 2;
+
+    private static final int X_COUNT = 1024;
+
+    private final float[] mXs = new float[X_COUNT];
+
+    private final TransformCurve mScaleCurve = new TransformCurve();
+
+    private final TransformCurve mGreyCurve = new TransformCurve();
+
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < X_COUNT; i++) {
+            mXs[i] = -ITEM_SIZE + random.nextFloat() * (SPACE + ITEM_SIZE);
+        }
+        mScaleCurve.sample(new TransformCurve.Function() {
+            @Override
+            public float compute(float x) {
+                return CoverFlowCurves.computeScale(x, CENTER_START, ITEM_SIZE, INTERVAL_RATIO);
+            }
+        }, -ITEM_SIZE, SPACE);
+        mGreyCurve.sample(new TransformCurve.Function() {
+            @Override
+            public float compute(float x) {
+                return CoverFlowCurves.computeGreyScale(x, ITEM_SIZE, SPACE);
+            }
+        }, -ITEM_SIZE, SPACE);
+    }
+
+    private float nextX() {
+        return mXs[mIndex++ & (X_COUNT - 1)];
+    }
+
+    @Benchmark
+    public float computeScale() {
+        return CoverFlowCurves.computeScale(nextX(), CENTER_START, ITEM_SIZE, INTERVAL_RATIO);
+    }
+
+    @Benchmark
+    public float computeGreyScale() {
+        return CoverFlowCurves.computeGreyScale(nextX(), ITEM_SIZE, SPACE);
+    }
+
+    @Benchmark
+    public float sampledScale() {
+        return mScaleCurve.valueAt(nextX());
+    }
+
+    @Benchmark
+    public float sampledGreyScale() {
+        return mGreyCurve.valueAt(nextX());
+    }
+}
@@ -0,0 +1,136 @@
+package com.huijie.app.testcoverflow.benchmark;
+
+import com.huijie.app.coverflow.core.CoverFlowGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-frame geometry work of CoverFlowLayoutManger: the visible range, the frames of the
+ * visible items, offset to center position and the drawing order of the attached children.
+ * Each invocation uses the next one of a fixed set of random scroll offsets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoverFlowGeometryBenchmark {
+
+    private static final int SPACE = 1080;
+
+    private static final int SPACE_IN_OTHER = 600;
+
+    /**
+     * Keeps the largest offset of 10M items below {@link Integer#MAX_VALUE}
+     */
+    private static final int ITEM_SIZE = 200;
+
+    private static final int ITEM_SIZE_IN_OTHER = 300;
+
+    private static final float INTERVAL_RATIO = 0.5f;
+
+    private static final int OFFSET_COUNT = 1024;
+
+    @Param({"10", "10000", "10000000"})
+    public int itemCount;
+
+    /**
+     * false gives every item a random size, so the size index is used
+     */
+    @Param({"true", "false"})
+    public boolean uniform;
+
+    @Param({"false", "true"})
+    public boolean looping;
+
+    private final CoverFlowGeometry mGeometry = new CoverFlowGeometry();
+
+    private final int[] mOffsets = new int[OFFSET_COUNT];
+
+    private int[] mOrder = new int[0];
+
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mGeometry.setLooping(looping);
+        mGeometry.set(SPACE, SPACE_IN_OTHER, ITEM_SIZE, ITEM_SIZE_IN_OTHER, INTERVAL_RATIO, itemCount);
+        if (!uniform) {
+            for (int i = 0; i < itemCount; i++) {
+                mGeometry.setItemSize(i, ITEM_SIZE / 2 + random.nextInt(ITEM_SIZE), ITEM_SIZE_IN_OTHER);
+            }
+        }
+        int maxOffset = mGeometry.getOffsetForPosition(itemCount - 1);
+        for (int i = 0; i < OFFSET_COUNT; i++) {
+            //looping offsets also cover the rounds before and after the first one
+            mOffsets[i] = looping
+                    ? (int) (random.nextDouble() * 2 * maxOffset) - maxOffset / 2
+                    : (int) (random.nextDouble() * maxOffset);
+        }
+        int maxVisible = 0;
+        for (int offset : mOffsets) {
+            int count = mGeometry.getLastVisiblePosition(offset, SPACE, itemCount)
+                    - mGeometry.getFirstVisiblePosition(offset, SPACE, itemCount) + 1;
+            maxVisible = Math.max(maxVisible, count);
+        }
+        mOrder = new int[maxVisible];
+    }
+
+    private int nextOffset() {
+        return mOffsets[mIndex++ & (OFFSET_COUNT - 1)];
+    }
+
+    @Benchmark
+    public void visibleRange(Blackhole blackhole) {
+        int offset = nextOffset();
+        blackhole.consume(mGeometry.getFirstVisiblePosition(offset, SPACE, itemCount));
+        blackhole.consume(mGeometry.getLastVisiblePosition(offset, SPACE, itemCount));
+    }
+
+    /**
+     * What a layout pass computes for every attached item
+     */
+    @Benchmark
+    public int frames() {
+        int offset = nextOffset();
+        int first = mGeometry.getFirstVisiblePosition(offset, SPACE, itemCount);
+        int last = mGeometry.getLastVisiblePosition(offset, SPACE, itemCount);
+        int sum = 0;
+        for (int position = first; position <= last; position++) {
+            sum += mGeometry.getFrameStart(position) - offset;
+            sum += mGeometry.getFrameEnd(position) - offset;
+            sum += mGeometry.getFrameStartInOther(position);
+            sum += mGeometry.getFrameEndInOther(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int centerPosition() {
+        return mGeometry.getCenterPosition(nextOffset());
+    }
+
+    @Benchmark
+    public int offsetForPosition() {
+        return mGeometry.getOffsetForPosition(mGeometry.getFloorPosition(nextOffset()));
+    }
+
+    @Benchmark
+    public int[] drawingOrder() {
+        int offset = nextOffset();
+        int first = mGeometry.getFirstVisiblePosition(offset, SPACE, itemCount);
+        int count = mGeometry.getLastVisiblePosition(offset, SPACE, itemCount) - first + 1;
+        CoverFlowGeometry.computeDrawingOrder(mOrder, count, mGeometry.getCenterPosition(offset) - first);
+        return mOrder;
+    }
+}
@@ -0,0 +1,71 @@
+package com.huijie.app.testcoverflow.benchmark;
+
+import com.huijie.app.coverflow.core.PagerPositions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The infinite mode position mapping of ViewPagerLayoutManager
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PagerPositionsBenchmark {
+
+    /**
+     * Keeps the offsets of 10M items within the int range of the layout positions
+     */
+    private static final float INTERVAL = 100f;
+
+    private static final int INPUT_COUNT = 1024;
+
+    @Param({"10", "10000", "10000000"})
+    public int itemCount;
+
+    @Param({"false", "true"})
+    public boolean reverseLayout;
+
+    private final float[] mOffsets = new float[INPUT_COUNT];
+
+    private final int[] mLayoutPositions = new int[INPUT_COUNT];
+
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            //one round before and after the first one
+            float offset = (float) ((random.nextDouble() * 3 - 1) * itemCount * INTERVAL);
+            mOffsets[i] = reverseLayout ? -offset : offset;
+            mLayoutPositions[i] = random.nextInt(3 * itemCount) - itemCount;
+        }
+    }
+
+    @Benchmark
+    public int toAdapterPosition() {
+        return PagerPositions.toAdapterPosition(mLayoutPositions[mIndex++ & (INPUT_COUNT - 1)], itemCount);
+    }
+
+    @Benchmark
+    public int currentPositionOffset() {
+        return PagerPositions.getCurrentPositionOffset(mOffsets[mIndex++ & (INPUT_COUNT - 1)], INTERVAL);
+    }
+
+    @Benchmark
+    public int currentPosition() {
+        int positionOffset = PagerPositions.getCurrentPositionOffset(
+                mOffsets[mIndex++ & (INPUT_COUNT - 1)], INTERVAL);
+        return PagerPositions.getCurrentPosition(positionOffset, itemCount, true, reverseLayout);
+    }
+}
@@ -0,0 +1,1974 @@
+package com.huijie.app.coverflow;
+
+import android.content.Context;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PointF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Trace;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.huijie.app.coverflow.core.CoverFlowCurves;
+import com.huijie.app.coverflow.core.CoverFlowGeometry;
+import com.huijie.app.coverflow.core.PositionShift;
+import com.huijie.app.coverflow.core.TransformCurve;
+import com.huijie.app.coverflow.viewpager.OrientationHelper;
+
+/**
+ * Cover Flow布局类
+ * <p>通过重写LayoutManger布局方法{@link #onLayoutChildren(RecyclerView.Recycler, RecyclerView.State)}
+ * 对Item进行布局，并对超出屏幕的Item进行回收
+ * <p>通过重写LayoutManger中的{@link #scrollHorizontallyBy(int, RecyclerView.Recycler, RecyclerView.State)}
+ * 和{@link #scrollVerticallyBy(int, RecyclerView.Recycler, RecyclerView.State)}进行滚动处理，
+ * 横向和竖向通过{@link OrientationHelper}共用同一套位置计算和变换
+ *
+ * @author Chen Xiaoping (562818444@qq.com)
+ * @version V1.0
+ * @Datetime 2017-04-18
+ */
+
+public class CoverFlowLayoutManger extends RecyclerView.LayoutManager
+        implements RecyclerView.SmoothScroller.ScrollVectorProvider {
+
+    /**
+     * 滑动总偏移量
+     */
+    private int mOffsetAll = 0;
+
+    /**
+     * 滚动方向，{@link OrientationHelper#HORIZONTAL}或{@link OrientationHelper#VERTICAL}
+     */
+    private int mOrientation = OrientationHelper.HORIZONTAL;
+
+    private OrientationHelper mOrientationHelper;
+
+    /**
+     * Item在滚动方向上的大小
+     */
+    private int mDecoratedMeasurement = 0;
+
+    /**
+     * Item在另一个方向上的大小
+     */
+    private int mDecoratedMeasurementInOther = 0;
+
+    /**
+     * 默认的Item间隔比例
+     */
+    private static final float DEFAULT_INTERVAL_RATIO = 0.5f;
+
+    private static final String TRACE_LAYOUT_ITEMS = "CoverFlowLayoutManger#layoutItems";
+
+    private static final String TRACE_LAYOUT_ITEM = "CoverFlowLayoutManger#layoutItem";
+
+    /**
+     * 平面滚动时默认的Item间隔比例
+     */
+    private static final float DEFAULT_FLAT_INTERVAL_RATIO = 1.1f;
+
+    /**
+     * Item间隔与Item大小的比例
+     */
+    private float mIntervalRatio = DEFAULT_INTERVAL_RATIO;
+
+    /**
+     * 自定义的Item间隔比例，小于0时使用默认比例
+     */
+    private float mCstIntervalRatio = -1f;
+
+    /**
+     * 是否正在批量修改配置，批量修改时只在最后请求一次布局
+     */
+    private boolean mInBatchConfig = false;
+
+    /**
+     * 已添加的Item在下一次布局时全部回收，滚动方向、循环模式或Adapter变化后已添加的Item位置失效
+     */
+    private boolean mRecycleAllViews = false;
+
+    /**
+     * 居中Item在滚动方向上的起始坐标
+     */
+    private int mCenterStart = 0;
+
+    /**
+     * Item位置计算，所有Item的位置信息都通过公式直接计算，不再缓存Rect
+     */
+    private final CoverFlowGeometry mGeometry = new CoverFlowGeometry();
+
+    /**
+     * 是否循环滚动
+     */
+    private boolean mInfinite = false;
+
+    /**
+     * 第一个已添加到控件中的Item位置，已添加的Item位置是连续的
+     * <p>循环滚动时为虚拟位置，对应的Item位置为对Item总数取模
+     */
+    private int mFirstAttachedPosition = 0;
+
+    /**
+     * 等待恢复的状态
+     */
+    private SavedState mPendingSavedState = null;
+
+    /**
+     * 子View的绘制顺序，每次布局后更新
+     */
+    private int[] mDrawingOrder = new int[0];
+
+    /**
+     * 计算绘制顺序时的子View数量
+     */
+    private int mDrawingOrderCount = 0;
+
+    /**
+     * 等待布局时滚动到的位置
+     */
+    private int mPendingScrollPosition = RecyclerView.NO_POSITION;
+
+    /**
+     * Item增删移动后，布局时需要保持在中间的Item位置
+     */
+    private int mPendingAnchorPosition = RecyclerView.NO_POSITION;
+
+    /**
+     * 锚点Item相对居中时的偏移量
+     */
+    private int mPendingAnchorOffset = 0;
+
+    /**
+     * 默认Item大小是否需要重新测量
+     */
+    private boolean mItemSizeDirty = true;
+
+    /**
+     * 测量缓存，复用的Item在测量条件没有变化时不再重新测量
+     */
+    private final MeasureCache mMeasureCache = new MeasureCache();
+
+    /**
+     * 每次布局和滚动的统计数据，重复使用同一个对象
+     */
+    private final LayoutMetrics mMetrics = new LayoutMetrics();
+
+    private LayoutMetrics.Listener mMetricsListener;
+
+    /**
+     * 当前布局或滚动是否统计，只在设置了监听时统计，没有监听时不计时也不计数
+     */
+    private boolean mCollectMetrics = false;
+
+    /**
+     * 测量默认Item大小时控件的宽高
+     */
+    private int mMeasuredWidth = 0;
+    private int mMeasuredHeight = 0;
+
+    /**
+     * 正显示在中间的Item
+     */
+    private int mSelectPosition = 0;
+
+    /**
+     * 前一个正显示在中间的Item
+     */
+    private int mLastSelectPosition = 0;
+
+    /**
+     * 选中监听
+     */
+    private OnSelected mSelectedListener;
+
+    /**
+     * 是否为平面滚动，Item之间没有叠加，也没有缩放
+     */
+    private boolean mIsFlatFlow = false;
+
+    /**
+     * 是否在绘制时变换Item，见{@link #setDrawTransform(boolean)}
+     */
+    private boolean mDrawTransform = false;
+
+    /**
+     * 变换配置的版本，每次布局时增加，绘制时缓存的变换矩阵版本不同时重新计算
+     */
+    private int mTransformVersion = 0;
+
+    /**
+     * 是否启动Item灰度值渐变
+     */
+    private boolean mItemGradualGrey = false;
+
+    /**
+     * 是否启动Item半透渐变
+     */
+    private boolean mItemGradualAlpha = false;
+
+    /**
+     * 灰度和半透效果使用的Paint缓存
+     */
+    private final ItemPaintCache mPaintCache = new ItemPaintCache();
+
+    /**
+     * 当前滚动状态
+     */
+    private int mScrollState = RecyclerView.SCROLL_STATE_IDLE;
+
+    /**
+     * 缩放曲线
+     */
+    private final TransformCurve mScaleCurve = new TransformCurve();
+
+    /**
+     * Y轴旋转曲线
+     */
+    private final TransformCurve mRotationCurve = new TransformCurve();
+
+    /**
+     * 半透曲线
+     */
+    private final TransformCurve mAlphaCurve = new TransformCurve();
+
+    /**
+     * 灰度曲线
+     */
+    private final TransformCurve mGreyCurve = new TransformCurve();
+
+    private final TransformCurve.Function mDefaultScaleFunction = new TransformCurve.Function() {
+        @Override
+        public float compute(float x) {
+            return CoverFlowCurves.computeScale(x, mCenterStart, mDecoratedMeasurement, mIntervalRatio);
+        }
+    };
+
+    private final TransformCurve.Function mDefaultRotationFunction = new TransformCurve.Function() {
+        @Override
+        public float compute(float x) {
+            return CoverFlowCurves.computeRotationY(x, mDecoratedMeasurement);
+        }
+    };
+
+    private final TransformCurve.Function mDefaultAlphaFunction = new TransformCurve.Function() {
+        @Override
+        public float compute(float x) {
+            return CoverFlowCurves.computeAlpha(x, mCenterStart, mDecoratedMeasurement, mIntervalRatio);
+        }
+    };
+
+    private final TransformCurve.Function mDefaultGreyFunction = new TransformCurve.Function() {
+        @Override
+        public float compute(float x) {
+            return CoverFlowCurves.computeGreyScale(x, mDecoratedMeasurement, getTotalSpace());
+        }
+    };
+
+    /**
+     * 自定义曲线，为null时使用默认曲线
+     */
+    private TransformCurve.Function mScaleFunction;
+    private TransformCurve.Function mRotationFunction;
+    private TransformCurve.Function mAlphaFunction;
+    private TransformCurve.Function mGreyFunction;
+
+    /**
+     * Item的变换结果，所有Item复用，只有变化的属性才会写入View
+     */
+    private final ItemTransform mItemTransform = new ItemTransform();
+
+    /**
+     * 自定义Item变换，为null时使用默认变换
+     */
+    private ItemTransformer mItemTransformer;
+
+    /**
+     * 默认变换，按缩放曲线和旋转曲线查表，平面滚动时不缩放和旋转
+     */
+    private final ItemTransformer mDefaultTransformer = new ItemTransformer() {
+        @Override
+        public void transformItem(View item, float offset, ItemTransform transform) {
+            if (mIsFlatFlow) {
+                return;
+            }
+            float x = offset + mCenterStart;
+            transform.setScale(mScaleCurve.valueAt(x));
+            float rotation = mRotationCurve.valueAt(x);
+            if (mOrientation == OrientationHelper.HORIZONTAL) {
+                transform.rotationY = rotation;
+            } else {
+                //竖向时绕X轴旋转，方向与横向时相反，靠近中间的一边向后
+                transform.rotationX = -rotation;
+            }
+        }
+    };
+
+    /**
+     * 曲线采样时的测量结果，用于判断是否需要重新采样
+     */
+    private int mCurveItemSize = -1;
+    private int mCurveCenterStart = -1;
+    private int mCurveSpace = -1;
+    private float mCurveIntervalRatio = -1;
+
+    /**
+     * 滚动时沿滚动方向预取的Item数量
+     */
+    private int mPrefetchItemCount = 2;
+
+    /**
+     * 嵌套在其他RecyclerView中时，初始预取的Item数量
+     */
+    private int mInitialPrefetchItemCount = 3;
+
+    public CoverFlowLayoutManger(boolean isFlat, boolean isGreyItem,
+                                 boolean isAlphaItem, float cstInterval) {
+        mIsFlatFlow = isFlat;
+        mItemGradualGrey = isGreyItem;
+        mItemGradualAlpha = isAlphaItem;
+        mCstIntervalRatio = cstInterval;
+        mIntervalRatio = resolveIntervalRatio();
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
+        return new LayoutParams(c, attrs);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+        if (lp instanceof RecyclerView.LayoutParams) {
+            return new LayoutParams((RecyclerView.LayoutParams) lp);
+        } else if (lp instanceof ViewGroup.MarginLayoutParams) {
+            return new LayoutParams((ViewGroup.MarginLayoutParams) lp);
+        } else {
+            return new LayoutParams(lp);
+        }
+    }
+
+    @Override
+    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
+        return lp instanceof LayoutParams;
+    }
+
+    /**
+     * 计算Item位置
+     *
+     * @param recycler
+     * @param state
+     */
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        beginLayoutMetrics(LayoutMetrics.PASS_LAYOUT);
+        layoutChildren(recycler, state);
+        dispatchLayoutMetrics();
+    }
+
+    private void layoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        mTransformVersion++;
+        if (mRecycleAllViews && !state.isPreLayout()) {
+            //通过Recycler回收，ViewHolder放回缓存池，不会重新创建
+            mRecycleAllViews = false;
+            if (mCollectMetrics) {
+                mMetrics.childrenRecycled += getChildCount();
+            }
+            removeAndRecycleAllViews(recycler);
+            mFirstAttachedPosition = 0;
+        }
+        //如果没有item，直接返回
+        if (getItemCount() <= 0) {
+            if (mCollectMetrics) {
+                mMetrics.childrenRecycled += getChildCount();
+            }
+            removeAndRecycleAllViews(recycler);
+            mOffsetAll = 0;
+            return;
+        }
+        if (state.isPreLayout()) {
+            //预布局用于Item动画，按变化前的位置布局
+            preLayoutItems(recycler, state);
+            return;
+        }
+        if (mPendingSavedState != null && mPendingSavedState.isSameSize(getWidth(), getHeight())) {
+            //控件与Item大小都没有变化，直接使用保存的测量结果，不需要再测量第0个Item
+            if (mOrientation == OrientationHelper.HORIZONTAL) {
+                updateItemSize(mPendingSavedState.itemWidth, mPendingSavedState.itemHeight);
+            } else {
+                updateItemSize(mPendingSavedState.itemHeight, mPendingSavedState.itemWidth);
+            }
+            mItemSizeDirty = false;
+            mMeasuredWidth = getWidth();
+            mMeasuredHeight = getHeight();
+            if (mCollectMetrics) {
+                mMetrics.childrenScrapped += getChildCount();
+            }
+            detachAndScrapAttachedViews(recycler);
+            mOffsetAll = calculateOffsetForPosition(mPendingSavedState.selectPosition)
+                    + mPendingSavedState.offset;
+            fixOffset();
+            onSelectedCallBack();
+            layoutItems(recycler, state);
+            return;
+        }
+        if (mPendingSavedState != null && mPendingScrollPosition == RecyclerView.NO_POSITION) {
+            //大小发生了变化，只能恢复到保存的位置
+            mPendingScrollPosition = Math.min(mPendingSavedState.selectPosition, getItemCount() - 1);
+        }
+        if (mItemSizeDirty || mDecoratedMeasurement <= 0
+                || mMeasuredWidth != getWidth() || mMeasuredHeight != getHeight()) {
+            //得到子view的宽和高，以第0个Item的大小作为默认大小
+            View scrap = addItemView(recycler, 0, -1);
+            //计算测量布局的宽高
+            updateItemSize(getDecoratedMeasurement(scrap), getDecoratedMeasurementInOther(scrap));
+            mItemSizeDirty = false;
+            mMeasuredWidth = getWidth();
+            mMeasuredHeight = getHeight();
+        } else {
+            //控件和第0个Item都没有变化，不需要重新绑定和测量第0个Item
+            updateItemSize(mDecoratedMeasurement, mDecoratedMeasurementInOther);
+        }
+
+        if (mCollectMetrics) {
+            mMetrics.childrenScrapped += getChildCount();
+        }
+        detachAndScrapAttachedViews(recycler); //在布局之前，将所有的子View先Detach掉，放入到Scrap缓存中
+        if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+            //调用scrollToPosition后，在布局时滚动到对应位置
+            mOffsetAll = calculateOffsetForPosition(mPendingScrollPosition);
+            onSelectedCallBack();
+        } else if (mPendingAnchorPosition != RecyclerView.NO_POSITION) {
+            //Item增删移动后，保持原来居中的Item仍然居中
+            int anchor = Math.min(mPendingAnchorPosition, getItemCount() - 1);
+            mOffsetAll = calculateOffsetForPosition(anchor) + mPendingAnchorOffset;
+            fixOffset();
+            onSelectedCallBack();
+        }
+        //Item数量或大小变化后，修正偏移量
+        fixOffset();
+        //布局Item
+        layoutItems(recycler, state);
+    }
+
+    /**
+     * 预布局，按Item变化前的位置布局已添加的Item
+     * <p>被删除的Item仍然保留在原位置，并在末端补充相同数量的Item，
+     * 这些Item在变化后会移入屏幕，ItemAnimator可以据此计算移动动画
+     */
+    private void preLayoutItems(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int childCount = getChildCount();
+        int itemCount = state.getItemCount();
+        if (childCount == 0 || itemCount <= 0) {
+            return;
+        }
+        int removed = 0;
+        for (int i = 0; i < childCount; i++) {
+            RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) getChildAt(i).getLayoutParams();
+            if (lp.isItemRemoved()) {
+                removed++;
+            }
+        }
+        int first = mFirstAttachedPosition;
+        int last = first + childCount - 1 + removed;
+        if (mInfinite) {
+            last = Math.min(last, first + itemCount - 1);
+        } else {
+            last = Math.min(last, itemCount - 1);
+        }
+        if (mCollectMetrics) {
+            mMetrics.childrenScrapped += getChildCount();
+        }
+        detachAndScrapAttachedViews(recycler);
+        for (int position = first; position <= last; position++) {
+            //预布局时Item位置为变化前的位置
+            int adapterPosition = mInfinite ? ((position % itemCount) + itemCount) % itemCount : position;
+            View scrap = addItemView(recycler, adapterPosition, -1);
+            layoutItem(scrap, position);
+        }
+        updateDrawingOrder();
+    }
+
+    /**
+     * 获取Item并添加到RecyclerView，测量结果没有变化时跳过测量
+     *
+     * @param adapterPosition Adapter位置
+     * @param index           添加的位置，-1表示添加在最后面
+     */
+    private View addItemView(RecyclerView.Recycler recycler, int adapterPosition, int index) {
+        View scrap = recycler.getViewForPosition(adapterPosition);
+        addView(scrap, index);
+        boolean measured = mMeasureCache.measureChildWithMargins(this, scrap);
+        if (mCollectMetrics) {
+            mMetrics.viewsRequested++;
+            mMetrics.childrenAdded++;
+            if (measured) {
+                mMetrics.measures++;
+            }
+        }
+        return scrap;
+    }
+
+    /**
+     * 更新Item大小，并重新计算所有Item的位置信息
+     *
+     * @param measurement        Item在滚动方向上的大小
+     * @param measurementInOther Item在另一个方向上的大小
+     */
+    private void updateItemSize(int measurement, int measurementInOther) {
+        mDecoratedMeasurement = measurement;
+        mDecoratedMeasurementInOther = measurementInOther;
+        //计算第一个Item在滚动方向上的起始坐标,这里第一个Item居中显示
+        mCenterStart = Math.round((getTotalSpace() - mDecoratedMeasurement) * 1.0f / 2);
+        //所有Item的位置信息都由这几个值以及每个Item测量得到的大小决定
+        mGeometry.set(getTotalSpace(), getTotalSpaceInOther(),
+                mDecoratedMeasurement, mDecoratedMeasurementInOther, mIntervalRatio, getItemCount());
+        //测量结果变化时重新采样变换曲线
+        sampleCurvesIfNeeded();
+    }
+
+    @Override
+    public void onLayoutCompleted(RecyclerView.State state) {
+        super.onLayoutCompleted(state);
+        if (!state.isPreLayout()) {
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+            mPendingAnchorPosition = RecyclerView.NO_POSITION;
+            mPendingSavedState = null;
+        }
+    }
+
+    @Override
+    public boolean supportsPredictiveItemAnimations() {
+        return true;
+    }
+
+    @Override
+    public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        ensurePendingAnchor();
+        if (mPendingAnchorPosition != RecyclerView.NO_POSITION) {
+            mPendingAnchorPosition = PositionShift.afterInsert(mPendingAnchorPosition, positionStart, itemCount);
+        }
+        mGeometry.getSizeIndex().insert(positionStart, itemCount);
+        if (positionStart == 0) {
+            mItemSizeDirty = true;
+        }
+    }
+
+    @Override
+    public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        ensurePendingAnchor();
+        if (mPendingAnchorPosition != RecyclerView.NO_POSITION) {
+            int anchor = PositionShift.afterRemove(mPendingAnchorPosition, positionStart, itemCount);
+            if (anchor == PositionShift.REMOVED) {
+                //居中的Item被删除，由后面的Item补上
+                anchor = positionStart;
+                mPendingAnchorOffset = 0;
+            }
+            mPendingAnchorPosition = anchor;
+        }
+        mGeometry.getSizeIndex().remove(positionStart, itemCount);
+        if (positionStart == 0) {
+            mItemSizeDirty = true;
+        }
+    }
+
+    @Override
+    public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        ensurePendingAnchor();
+        if (mPendingAnchorPosition != RecyclerView.NO_POSITION) {
+            mPendingAnchorPosition = PositionShift.afterMove(mPendingAnchorPosition, from, to, itemCount);
+        }
+        mGeometry.getSizeIndex().move(from, to, itemCount);
+        if (from == 0 || to == 0) {
+            mItemSizeDirty = true;
+        }
+    }
+
+    @Override
+    public void onItemsUpdated(RecyclerView recyclerView, int positionStart, int itemCount) {
+        //内容变化的Item在布局时重新绑定和测量，位置不变
+        if (positionStart == 0) {
+            mItemSizeDirty = true;
+        }
+    }
+
+    @Override
+    public void onItemsChanged(RecyclerView recyclerView) {
+        //所有Item都可能发生了变化，清空测量结果
+        mGeometry.getSizeIndex().clear();
+        mItemSizeDirty = true;
+    }
+
+    /**
+     * 记录当前居中的Item作为锚点，Item增删移动时同步更新锚点位置
+     */
+    private void ensurePendingAnchor() {
+        if (mPendingAnchorPosition != RecyclerView.NO_POSITION || getChildCount() == 0) {
+            return;
+        }
+        int center = getVirtualCenterPosition();
+        mPendingAnchorPosition = mGeometry.toAdapterPosition(center);
+        mPendingAnchorOffset = mOffsetAll - calculateOffsetForPosition(center);
+    }
+
+    @Override
+    public Parcelable onSaveInstanceState() {
+        if (mPendingSavedState != null) {
+            return new SavedState(mPendingSavedState);
+        }
+        SavedState savedState = new SavedState();
+        savedState.selectPosition = mPendingScrollPosition != RecyclerView.NO_POSITION
+                ? mPendingScrollPosition : mSelectPosition;
+        //Item大小不同时，恢复后其他Item尚未测量，因此只保存相对选中Item的偏移量
+        savedState.offset = mPendingScrollPosition != RecyclerView.NO_POSITION
+                ? 0 : mOffsetAll - calculateOffsetForPosition(savedState.selectPosition);
+        if (mOrientation == OrientationHelper.HORIZONTAL) {
+            savedState.itemWidth = mDecoratedMeasurement;
+            savedState.itemHeight = mDecoratedMeasurementInOther;
+        } else {
+            savedState.itemWidth = mDecoratedMeasurementInOther;
+            savedState.itemHeight = mDecoratedMeasurement;
+        }
+        savedState.width = getWidth();
+        savedState.height = getHeight();
+        return savedState;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof SavedState) {
+            mPendingSavedState = new SavedState((SavedState) state);
+            mSelectPosition = mPendingSavedState.selectPosition;
+            requestLayout();
+        }
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler,
+                                    RecyclerView.State state) {
+        if (mOrientation != OrientationHelper.HORIZONTAL) {
+            return 0;
+        }
+        return scrollBy(dx, recycler, state);
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler,
+                                  RecyclerView.State state) {
+        if (mOrientation != OrientationHelper.VERTICAL) {
+            return 0;
+        }
+        return scrollBy(dy, recycler, state);
+    }
+
+    /**
+     * 沿滚动方向滚动
+     *
+     * @param delta 滚动距离
+     * @return 实际滚动的距离
+     */
+    private int scrollBy(int delta, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mRecycleAllViews) {
+            //已添加的Item等待下一次布局回收，布局前不滚动
+            return 0;
+        }
+        beginLayoutMetrics(LayoutMetrics.PASS_SCROLL);
+        if (mInfinite && getItemCount() > 0) {
+            //循环滚动时不限制偏移量，滚动后再把偏移量移回一个周期内
+            mOffsetAll += delta;
+            recenterOffset();
+            scrollItems(delta, recycler, state);
+            dispatchLayoutMetrics();
+            return delta;
+        }
+        int travel = delta;
+        if (delta + mOffsetAll < 0) {
+            travel = -mOffsetAll;
+        } else if (delta + mOffsetAll > getMaxOffset()) {
+            travel = getMaxOffset() - mOffsetAll;
+        }
+        //累计偏移量
+        mOffsetAll += travel;
+        scrollItems(travel, recycler, state);
+        dispatchLayoutMetrics();
+        return travel;
+    }
+
+    /**
+     * 滚动后更新Item
+     * <p>绘制时变换模式下，已添加的Item只平移，不重新布局，只有进入屏幕的Item需要布局
+     *
+     * @param travel 实际滚动的距离
+     */
+    private void scrollItems(int travel, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (!mDrawTransform) {
+            layoutItems(recycler, state);
+            return;
+        }
+        if (mOrientation == OrientationHelper.HORIZONTAL) {
+            offsetChildrenHorizontal(-travel);
+        } else {
+            offsetChildrenVertical(-travel);
+        }
+        layoutItems(recycler, state, true);
+    }
+
+    /**
+     * 一次布局或滚动开始，设置了监听时重置统计数据并开始计时
+     */
+    private void beginLayoutMetrics(int passType) {
+        mCollectMetrics = mMetricsListener != null;
+        if (mCollectMetrics) {
+            mMetrics.begin(passType);
+        }
+    }
+
+    /**
+     * 一次布局或滚动结束，通知统计数据
+     */
+    private void dispatchLayoutMetrics() {
+        if (mCollectMetrics && mMetricsListener != null) {
+            mMetrics.end();
+            mMetricsListener.onLayoutPass(mMetrics);
+        }
+        mCollectMetrics = false;
+    }
+
+    /**
+     * 设置布局统计监听，每次布局和滚动结束时回调，见{@link LayoutMetrics}
+     *
+     * @param listener 为null时停止回调
+     */
+    public void setLayoutMetricsListener(LayoutMetrics.Listener listener) {
+        mMetricsListener = listener;
+    }
+
+    /**
+     * 修正偏移量：循环滚动时移回一个周期内，否则限制在[0, {@link #getMaxOffset()}]
+     */
+    private void fixOffset() {
+        if (mInfinite) {
+            recenterOffset();
+        } else {
+            mOffsetAll = Math.max(0, Math.min(mOffsetAll, getMaxOffset()));
+        }
+    }
+
+    /**
+     * 循环滚动时把偏移量移回[0, 循环一周的偏移量)，已添加Item的虚拟位置同步移动一周，
+     * 子View不需要重新布局，偏移量不会无限增长
+     */
+    private void recenterOffset() {
+        int loopOffset = mGeometry.getLoopOffset();
+        int itemCount = getItemCount();
+        if (loopOffset <= 0 || itemCount <= 0) {
+            return;
+        }
+        int loop = mOffsetAll >= 0 ? mOffsetAll / loopOffset : -((loopOffset - 1 - mOffsetAll) / loopOffset);
+        if (loop != 0) {
+            mOffsetAll -= loop * loopOffset;
+            mFirstAttachedPosition -= loop * itemCount;
+        }
+    }
+
+    /**
+     * 布局Item
+     * <p>新加入的Item测量后大小与之前不同时，以居中的Item为锚点修正偏移量，再布局一次
+     */
+    private void layoutItems(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        layoutItems(recycler, state, false);
+    }
+
+    /**
+     * 布局Item
+     *
+     * @param childrenPlaced 已添加的Item是否已经平移到了新的位置，只需要更新效果
+     */
+    private void layoutItems(RecyclerView.Recycler recycler, RecyclerView.State state,
+                             boolean childrenPlaced) {
+        if (state.isPreLayout() || getItemCount() <= 0) {
+            return;
+        }
+        Trace.beginSection(TRACE_LAYOUT_ITEMS);
+        int anchor = getVirtualCenterPosition();
+        int anchorOffset = mOffsetAll - calculateOffsetForPosition(anchor);
+        if (fillItems(recycler, childrenPlaced)) {
+            mOffsetAll = calculateOffsetForPosition(anchor) + anchorOffset;
+            fixOffset();
+            fillItems(recycler, false);
+        }
+
+        updateDrawingOrder();
+        Trace.endSection();
+    }
+
+    /**
+     * 根据偏移量填充Item
+     * <p>注意：1，根据偏移量直接计算出可见范围[first, last]
+     * <p>     2，只在两端回收滑出屏幕的Item，并补充新进入屏幕的Item
+     * <p>已添加的Item按位置连续排列，第i个子View对应的位置为{@link #mFirstAttachedPosition} + i
+     *
+     * @param childrenPlaced 已添加的Item是否已经平移到了新的位置，只需要更新效果
+     * @return 新加入的Item宽度是否与之前记录的不同
+     */
+    private boolean fillItems(RecyclerView.Recycler recycler, boolean childrenPlaced) {
+        boolean sizeChanged = false;
+        int first = findFirstVisiblePosition();
+        int last = findLastVisiblePosition();
+        if (mInfinite) {
+            //同一个Item不能同时添加两次，可见数量最多为Item总数
+            last = Math.min(last, first + getItemCount() - 1);
+        }
+
+        //回收前端滑出屏幕的Item
+        while (getChildCount() > 0 && mFirstAttachedPosition < first) {
+            removeAndRecycleViewAt(0, recycler);
+            if (mCollectMetrics) {
+                mMetrics.childrenRecycled++;
+            }
+            mFirstAttachedPosition++;
+        }
+        //回收末端滑出屏幕的Item
+        while (getChildCount() > 0 && mFirstAttachedPosition + getChildCount() - 1 > last) {
+            removeAndRecycleViewAt(getChildCount() - 1, recycler);
+            if (mCollectMetrics) {
+                mMetrics.childrenRecycled++;
+            }
+        }
+        if (getChildCount() == 0) {
+            mFirstAttachedPosition = first;
+        }
+
+        //Item还在显示区域内，更新滑动后Item的位置
+        if (!childrenPlaced) {
+            for (int i = 0; i < getChildCount(); i++) {
+                layoutItem(getChildAt(i), mFirstAttachedPosition + i);
+            }
+        } else if (mItemGradualAlpha || mItemGradualGrey) {
+            for (int i = 0; i < getChildCount(); i++) {
+                View child = getChildAt(i);
+                applyItemEffect(child, getCurveX(child));
+                if (mCollectMetrics) {
+                    mMetrics.effectsApplied++;
+                }
+            }
+        }
+
+        //前端补充新进入屏幕的Item，添加在最前面
+        while (mFirstAttachedPosition > first) {
+            int position = mFirstAttachedPosition - 1;
+            View scrap = addItemView(recycler, mGeometry.toAdapterPosition(position), 0);
+            sizeChanged |= recordItemSize(scrap, position);
+            layoutItem(scrap, position);
+            mFirstAttachedPosition = position;
+        }
+
+        //末端补充新进入屏幕的Item，添加在最后面
+        for (int position = mFirstAttachedPosition + getChildCount(); position <= last; position++) {
+            View scrap = addItemView(recycler, mGeometry.toAdapterPosition(position), -1);
+            sizeChanged |= recordItemSize(scrap, position);
+            layoutItem(scrap, position);
+        }
+        return sizeChanged;
+    }
+
+    /**
+     * 记录Item测量得到的大小，O(log n)
+     *
+     * @return Item宽度是否发生了变化
+     */
+    private boolean recordItemSize(View child, int position) {
+        return mGeometry.setItemSize(mGeometry.toAdapterPosition(position),
+                getDecoratedMeasurement(child), getDecoratedMeasurementInOther(child));
+    }
+
+    /**
+     * Item在滚动方向上的大小
+     */
+    private int getDecoratedMeasurement(View child) {
+        return mOrientation == OrientationHelper.HORIZONTAL
+                ? getDecoratedMeasuredWidth(child) : getDecoratedMeasuredHeight(child);
+    }
+
+    /**
+     * Item在另一个方向上的大小
+     */
+    private int getDecoratedMeasurementInOther(View child) {
+        return mOrientation == OrientationHelper.HORIZONTAL
+                ? getDecoratedMeasuredHeight(child) : getDecoratedMeasuredWidth(child);
+    }
+
+    /**
+     * 更新子View的绘制顺序，中间的Item最后绘制，两边的Item由外向内绘制
+     * <p>每次布局只计算一次，{@link RecyclerCoverFlow#getChildDrawingOrder(int, int)}直接读取
+     */
+    private void updateDrawingOrder() {
+        int count = getChildCount();
+        if (mDrawingOrder.length < count) {
+            mDrawingOrder = new int[count];
+        }
+        //计算正在显示的所有Item的中间位置
+        CoverFlowGeometry.computeDrawingOrder(mDrawingOrder, count,
+                getVirtualCenterPosition() - mFirstAttachedPosition);
+        mDrawingOrderCount = count;
+    }
+
+    /**
+     * 获取子View的绘制顺序
+     * <p>子View数量与布局时不一致时（如Item动画过程中），按默认顺序绘制
+     *
+     * @param childCount 子View数量
+     * @param i          绘制序号
+     * @return 要绘制的子View下标
+     */
+    public int getChildDrawingOrder(int childCount, int i) {
+        if (childCount != mDrawingOrderCount || i >= childCount) {
+            return i;
+        }
+        return mDrawingOrder[i];
+    }
+
+    public int getIntervalWidth() {
+        return mDecoratedMeasurement / 2;
+    }
+
+    /**
+     * 布局Item位置
+     *
+     * @param child    要布局的Item
+     * @param position Item的位置
+     */
+    private void layoutItem(View child, int position) {
+        Trace.beginSection(TRACE_LAYOUT_ITEM);
+        int start = mGeometry.getFrameStart(position) - mOffsetAll;
+        int end = mGeometry.getFrameEnd(position) - mOffsetAll;
+        if (mOrientation == OrientationHelper.HORIZONTAL) {
+            layoutDecorated(child, start, mGeometry.getFrameStartInOther(position),
+                    end, mGeometry.getFrameEndInOther(position));
+        } else {
+            layoutDecorated(child, mGeometry.getFrameStartInOther(position), start,
+                    mGeometry.getFrameEndInOther(position), end);
+        }
+        int x = getCurveX(child);
+        mItemTransform.reset();
+        if (!mDrawTransform) {
+            getActiveTransformer().transformItem(child, x - mCenterStart, mItemTransform);
+        }
+        //绘制时变换模式下Item本身不变换，属性保持默认值
+        int writes = mItemTransform.applyTo(child);
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        lp.mTransformAlpha = mItemTransform.alpha;
+        lp.mEffectAlpha = 1f;
+
+        if (mItemGradualAlpha || mItemGradualGrey) {
+            applyItemEffect(child, x);
+        }
+        if (mCollectMetrics) {
+            mMetrics.propertyWrites += writes;
+            mMetrics.effectsApplied++;
+        }
+        Trace.endSection();
+    }
+
+    /**
+     * Item在变换曲线上的坐标
+     * <p>变换曲线按默认Item大小采样，大小不同的Item按中心位置换算
+     *
+     * @param child 已布局的Item
+     */
+    private int getCurveX(View child) {
+        int start = mOrientation == OrientationHelper.HORIZONTAL
+                ? getDecoratedLeft(child) : getDecoratedTop(child);
+        return start + (getDecoratedMeasurement(child) - mDecoratedMeasurement) / 2;
+    }
+
+    private ItemTransformer getActiveTransformer() {
+        return mItemTransformer != null ? mItemTransformer : mDefaultTransformer;
+    }
+
+    /**
+     * 绘制时变换模式下，子View绘制时使用的变换矩阵
+     * <p>矩阵缓存在Item的布局参数中，Item位置和变换配置都没有变化时直接复用
+     *
+     * @param child 要绘制的子View
+     * @return 不需要在绘制时变换时返回null
+     */
+    Matrix getChildDrawMatrix(View child) {
+        if (!mDrawTransform || !(child.getLayoutParams() instanceof LayoutParams)) {
+            return null;
+        }
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        int x = getCurveX(child);
+        if (lp.mDrawMatrix != null && lp.mDrawX == x && lp.mDrawVersion == mTransformVersion) {
+            return lp.mDrawMatrix;
+        }
+        mItemTransform.reset();
+        getActiveTransformer().transformItem(child, x - mCenterStart, mItemTransform);
+        if (lp.mDrawMatrix == null) {
+            lp.mDrawMatrix = new Matrix();
+        }
+        mItemTransform.getMatrix(child, lp.mDrawMatrix);
+        lp.mDrawX = x;
+        lp.mDrawVersion = mTransformVersion;
+        return lp.mDrawMatrix;
+    }
+
+    /**
+     * Item当前使用的灰度和半透效果Paint
+     *
+     * @return 没有效果时返回null
+     */
+    Paint getItemEffectPaint(View child) {
+        if (!(child.getLayoutParams() instanceof LayoutParams)) {
+            return null;
+        }
+        int key = ((LayoutParams) child.getLayoutParams()).mEffectKey;
+        if (key == ItemPaintCache.NO_EFFECT || key == ItemPaintCache.IDENTITY) {
+            return null;
+        }
+        return mPaintCache.getPaint(key);
+    }
+
+    /**
+     * 变化Item的灰度值和半透值
+     * <p>滚动过程中灰度和半透都通过硬件层的Paint实现，Paint按量化等级缓存，只有等级变化时才替换，
+     * 硬件层一直保留；停止滚动后只有半透效果的Item移除硬件层，半透值直接设置到Item上，
+     * 只有需要灰度的Item保留硬件层。Item内容有重叠时半透会在绘制时使用离屏缓冲，
+     * 只有一张图片的Item可以重写{@link View#hasOverlappingRendering()}返回false
+     *
+     * @param child 需要设置效果的Item
+     * @param x     Item的偏移量
+     */
+    private void applyItemEffect(View child, int x) {
+        int greyLevel = mItemGradualGrey ?
+                ItemPaintCache.greyLevel(mGreyCurve.valueAt(x)) : ItemPaintCache.GREY_LEVELS - 1;
+        int alphaLevel = mItemGradualAlpha ?
+                ItemPaintCache.alphaLevel(mAlphaCurve.valueAt(x)) : ItemPaintCache.ALPHA_LEVELS - 1;
+        int key = ItemPaintCache.key(greyLevel, alphaLevel);
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (ItemPaintCache.isAlphaOnly(key) && mScrollState == RecyclerView.SCROLL_STATE_IDLE) {
+            //不需要灰度，并且没有在滚动，移除硬件层，半透值设置到Item上
+            if (child.getLayerType() != View.LAYER_TYPE_NONE) {
+                child.setLayerType(View.LAYER_TYPE_NONE, null);
+                if (mCollectMetrics) {
+                    mMetrics.layerChanges++;
+                }
+            }
+            setEffectAlpha(child, lp, ItemPaintCache.alphaOf(key));
+            lp.mEffectKey = key;
+            return;
+        }
+        //半透值由硬件层的Paint实现
+        setEffectAlpha(child, lp, 1f);
+        if (child.getLayerType() != View.LAYER_TYPE_HARDWARE) {
+            child.setLayerType(View.LAYER_TYPE_HARDWARE, mPaintCache.getPaint(key));
+            if (mCollectMetrics) {
+                mMetrics.layerChanges++;
+            }
+        } else if (lp.mEffectKey != key) {
+            //只替换Paint，不会重新创建硬件层
+            child.setLayerPaint(mPaintCache.getPaint(key));
+        }
+        lp.mEffectKey = key;
+    }
+
+    /**
+     * 把效果的半透值设置到Item上，只在半透值变化时修改
+     */
+    private void setEffectAlpha(View child, LayoutParams lp, float alpha) {
+        if (lp.mEffectAlpha != alpha) {
+            lp.mEffectAlpha = alpha;
+            child.setAlpha(lp.mTransformAlpha * alpha);
+            if (mCollectMetrics) {
+                mMetrics.propertyWrites++;
+            }
+        }
+    }
+
+    /**
+     * 清除Item上的效果
+     */
+    private void clearItemEffect(View child) {
+        if (child.getLayerType() != View.LAYER_TYPE_NONE) {
+            child.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        setEffectAlpha(child, lp, 1f);
+        lp.mEffectKey = ItemPaintCache.NO_EFFECT;
+    }
+
+    /**
+     * 开始拖拽时，为所有Item创建硬件层，滚动过程中不再切换
+     */
+    private void promoteItemLayers() {
+        if (!mItemGradualAlpha && !mItemGradualGrey) {
+            return;
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getLayerType() != View.LAYER_TYPE_HARDWARE) {
+                LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                int key = lp.mEffectKey == ItemPaintCache.NO_EFFECT ? ItemPaintCache.IDENTITY : lp.mEffectKey;
+                //停止滚动时设置到Item上的半透值改由硬件层的Paint实现
+                setEffectAlpha(child, lp, 1f);
+                child.setLayerType(View.LAYER_TYPE_HARDWARE, mPaintCache.getPaint(key));
+                lp.mEffectKey = key;
+            }
+        }
+    }
+
+    /**
+     * 停止滚动时，移除不需要灰度的Item的硬件层，半透值直接设置到Item上
+     */
+    private void releaseItemLayers() {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (!mItemGradualAlpha && !mItemGradualGrey) {
+                clearItemEffect(child);
+            } else {
+                applyItemEffect(child, getCurveX(child));
+            }
+        }
+    }
+
+    /**
+     * 测量结果变化时对变换曲线重新采样
+     * <p>采样区间覆盖所有可见Item的偏移量，滑动时只需查表
+     */
+    private void sampleCurvesIfNeeded() {
+        int space = getTotalSpace();
+        if (mCurveItemSize == mDecoratedMeasurement && mCurveCenterStart == mCenterStart
+                && mCurveSpace == space && mCurveIntervalRatio == mIntervalRatio) {
+            return;
+        }
+        mCurveItemSize = mDecoratedMeasurement;
+        mCurveCenterStart = mCenterStart;
+        mCurveSpace = space;
+        mCurveIntervalRatio = mIntervalRatio;
+        float from = -mDecoratedMeasurement - 1;
+        float to = space + 1;
+        mScaleCurve.sample(mScaleFunction != null ? mScaleFunction : mDefaultScaleFunction, from, to);
+        mRotationCurve.sample(mRotationFunction != null ? mRotationFunction : mDefaultRotationFunction, from, to);
+        mAlphaCurve.sample(mAlphaFunction != null ? mAlphaFunction : mDefaultAlphaFunction, from, to);
+        mGreyCurve.sample(mGreyFunction != null ? mGreyFunction : mDefaultGreyFunction, from, to);
+    }
+
+    /**
+     * 标记变换曲线需要重新采样
+     */
+    private void invalidateCurves() {
+        mCurveItemSize = -1;
+        requestConfigLayout();
+    }
+
+    /**
+     * 配置变化后请求重新布局，已绑定的Item会被直接复用，不会重新创建和绑定
+     */
+    private void requestConfigLayout() {
+        if (!mInBatchConfig) {
+            requestLayout();
+        }
+    }
+
+    /**
+     * 设置是否为普通平面滚动
+     *
+     * @param isFlat true:平面滚动；false:叠加缩放滚动
+     */
+    public void setFlatFlow(boolean isFlat) {
+        if (isFlat == mIsFlatFlow) {
+            return;
+        }
+        //切换到平面滚动时，缩放和旋转在重新布局时还原
+        mIsFlatFlow = isFlat;
+        updateIntervalRatio();
+        requestConfigLayout();
+    }
+
+    public boolean isFlatFlow() {
+        return mIsFlatFlow;
+    }
+
+    /**
+     * 设置Item灰度渐变
+     *
+     * @param greyItem true:Item灰度渐变；false:Item灰度不变
+     */
+    public void setGreyItem(boolean greyItem) {
+        if (greyItem == mItemGradualGrey) {
+            return;
+        }
+        mItemGradualGrey = greyItem;
+        onItemEffectChanged();
+    }
+
+    public boolean isGreyItem() {
+        return mItemGradualGrey;
+    }
+
+    /**
+     * 设置Item半透渐变
+     *
+     * @param alphaItem true:Item半透渐变；false:Item透明度不变
+     */
+    public void setAlphaItem(boolean alphaItem) {
+        if (alphaItem == mItemGradualAlpha) {
+            return;
+        }
+        mItemGradualAlpha = alphaItem;
+        onItemEffectChanged();
+    }
+
+    public boolean isAlphaItem() {
+        return mItemGradualAlpha;
+    }
+
+    /**
+     * 灰度或半透效果开关变化，两种效果都关闭时移除所有Item的效果
+     */
+    private void onItemEffectChanged() {
+        if (!mItemGradualGrey && !mItemGradualAlpha) {
+            for (int i = 0; i < getChildCount(); i++) {
+                clearItemEffect(getChildAt(i));
+            }
+        }
+        requestConfigLayout();
+    }
+
+    /**
+     * 设置Item的间隔比例
+     *
+     * @param intervalRatio Item间隔比例，即：item的宽 x intervalRatio，小于0时使用默认比例
+     */
+    public void setIntervalRatio(float intervalRatio) {
+        if (intervalRatio == mCstIntervalRatio) {
+            return;
+        }
+        mCstIntervalRatio = intervalRatio;
+        updateIntervalRatio();
+        requestConfigLayout();
+    }
+
+    public float getIntervalRatio() {
+        return mIntervalRatio;
+    }
+
+    /**
+     * 实际使用的Item间隔比例
+     */
+    private float resolveIntervalRatio() {
+        if (mCstIntervalRatio >= 0) {
+            return mCstIntervalRatio;
+        }
+        return mIsFlatFlow ? DEFAULT_FLAT_INTERVAL_RATIO : DEFAULT_INTERVAL_RATIO;
+    }
+
+    /**
+     * 更新Item间隔比例，并保持当前居中的Item在布局后仍然居中
+     */
+    private void updateIntervalRatio() {
+        float ratio = resolveIntervalRatio();
+        if (ratio == mIntervalRatio) {
+            return;
+        }
+        if (mPendingScrollPosition == RecyclerView.NO_POSITION) {
+            ensurePendingAnchor();
+            if (mIntervalRatio > 0) {
+                mPendingAnchorOffset = Math.round(mPendingAnchorOffset * ratio / mIntervalRatio);
+            }
+        }
+        mIntervalRatio = ratio;
+    }
+
+    /**
+     * 批量修改配置，所有配置都修改完成后只请求一次布局
+     *
+     * @param builder 新的配置
+     */
+    void applyConfig(Builder builder) {
+        mInBatchConfig = true;
+        try {
+            setOrientation(builder.orientation);
+            setInfinite(builder.isInfinite);
+            setFlatFlow(builder.isFlat);
+            setGreyItem(builder.isGreyItem);
+            setAlphaItem(builder.isAlphaItem);
+            setIntervalRatio(builder.cstIntervalRatio);
+            setDrawTransform(builder.isDrawTransform);
+        } finally {
+            mInBatchConfig = false;
+        }
+        requestLayout();
+    }
+
+    /**
+     * 设置自定义缩放曲线
+     *
+     * @param function 曲线函数，参数为Item左边界相对控件的偏移量，为null时恢复默认曲线
+     */
+    public void setScaleFunction(TransformCurve.Function function) {
+        mScaleFunction = function;
+        invalidateCurves();
+    }
+
+    /**
+     * 设置自定义Y轴旋转曲线
+     *
+     * @param function 曲线函数，参数为Item左边界相对控件的偏移量，为null时恢复默认曲线
+     */
+    public void setRotationFunction(TransformCurve.Function function) {
+        mRotationFunction = function;
+        invalidateCurves();
+    }
+
+    /**
+     * 设置自定义半透曲线
+     *
+     * @param function 曲线函数，参数为Item左边界相对控件的偏移量，为null时恢复默认曲线
+     */
+    public void setAlphaFunction(TransformCurve.Function function) {
+        mAlphaFunction = function;
+        invalidateCurves();
+    }
+
+    /**
+     * 设置自定义灰度曲线
+     *
+     * @param function 曲线函数，参数为Item左边界相对控件的偏移量，为null时恢复默认曲线
+     */
+    public void setGreyFunction(TransformCurve.Function function) {
+        mGreyFunction = function;
+        invalidateCurves();
+    }
+
+    /**
+     * 设置自定义Item变换，代替默认的缩放和旋转，灰度和半透效果不受影响
+     *
+     * @param transformer 参数offset为Item与居中位置的距离，为null时恢复默认变换
+     */
+    public void setItemTransformer(ItemTransformer transformer) {
+        if (transformer == mItemTransformer) {
+            return;
+        }
+        mItemTransformer = transformer;
+        requestConfigLayout();
+    }
+
+    public ItemTransformer getItemTransformer() {
+        return mItemTransformer;
+    }
+
+    /**
+     * 设置是否在绘制时变换Item
+     * <p>开启后缩放和旋转不再设置到Item的属性上，而是由{@link RecyclerCoverFlow}绘制子View时
+     * 通过变换矩阵完成；滚动时已添加的Item只平移，只有进入屏幕的Item需要布局。
+     * Item的点击区域不随变换改变，自定义变换中的半透值不生效，半透效果请使用{@link #setAlphaItem(boolean)}
+     *
+     * @param drawTransform true:绘制时变换；false:布局时设置Item属性
+     */
+    public void setDrawTransform(boolean drawTransform) {
+        if (drawTransform == mDrawTransform) {
+            return;
+        }
+        mDrawTransform = drawTransform;
+        requestConfigLayout();
+    }
+
+    public boolean isDrawTransform() {
+        return mDrawTransform;
+    }
+
+    @Override
+    public void onScrollStateChanged(int state) {
+        super.onScrollStateChanged(state);
+        mScrollState = state;
+        switch (state) {
+            case RecyclerView.SCROLL_STATE_IDLE:
+                //滚动停止时
+                releaseItemLayers();
+                //居中吸附由CoverFlowSnapHelper通过RecyclerView的滚动完成，这里只需要更新选中位置
+                onSelectedCallBack();
+                break;
+            case RecyclerView.SCROLL_STATE_DRAGGING:
+                //拖拽滚动时
+                promoteItemLayers();
+                break;
+            case RecyclerView.SCROLL_STATE_SETTLING:
+                //动画滚动时
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void scrollToPosition(int position) {
+        if (position < 0 || position > getItemCount() - 1) {
+            return;
+        }
+        //先记录下要滚动的位置，在布局时更新偏移量
+        mPendingScrollPosition = position;
+        mPendingSavedState = null;
+        mSelectPosition = position;
+        requestLayout();
+    }
+
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        if (position < 0 || position > getItemCount() - 1) {
+            return;
+        }
+        if (getChildCount() == 0) {
+            //还没有布局，直接滚动到对应位置
+            scrollToPosition(position);
+            return;
+        }
+        CoverFlowSmoothScroller scroller = new CoverFlowSmoothScroller(recyclerView.getContext());
+        scroller.setTargetPosition(position);
+        startSmoothScroll(scroller);
+    }
+
+    @Override
+    public PointF computeScrollVectorForPosition(int targetPosition) {
+        int distance = getOffsetToPosition(targetPosition);
+        if (distance == 0) {
+            return new PointF(0, 0);
+        }
+        int direction = distance > 0 ? 1 : -1;
+        return mOrientation == OrientationHelper.HORIZONTAL
+                ? new PointF(direction, 0) : new PointF(0, direction);
+    }
+
+    @Override
+    public View findViewByPosition(int position) {
+        //已添加的Item位置是连续的，可以直接计算出下标
+        int index = position - mFirstAttachedPosition;
+        if (mInfinite && getItemCount() > 0) {
+            index = mGeometry.toAdapterPosition(index);
+        }
+        if (index >= 0 && index < getChildCount()) {
+            View child = getChildAt(index);
+            if (getPosition(child) == position) {
+                return child;
+            }
+        }
+        return super.findViewByPosition(position);
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        return mOrientation == OrientationHelper.HORIZONTAL;
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return mOrientation == OrientationHelper.VERTICAL;
+    }
+
+    /**
+     * 沿滚动方向预取即将进入屏幕的Item，让创建和绑定在空闲帧中完成
+     * <p>预取数量至少为{@link #mPrefetchItemCount}，快速滚动时按滚动距离和Item间隔增加
+     */
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        float interval = getIntervalDistance();
+        int delta = mOrientation == OrientationHelper.HORIZONTAL ? dx : dy;
+        if (getChildCount() == 0 || delta == 0 || interval <= 0 || mRecycleAllViews) {
+            return;
+        }
+        int count = Math.max(mPrefetchItemCount, (int) Math.ceil(Math.abs(delta) / interval));
+        int itemCount = state.getItemCount();
+        int first = mFirstAttachedPosition;
+        int last = first + getChildCount() - 1;
+        //循环滚动时虚拟位置绕回一周后对应的是已经添加的Item，不能预取
+        if (delta > 0) {
+            int displayEnd = mOffsetAll + getTotalSpace();
+            for (int position = last + 1; position <= last + count; position++) {
+                if (mInfinite ? position - itemCount >= first : position >= itemCount) {
+                    break;
+                }
+                layoutPrefetchRegistry.addPosition(mGeometry.toAdapterPosition(position),
+                        Math.max(0, mGeometry.getFrameStart(position) - displayEnd));
+            }
+        } else {
+            for (int position = first - 1; position >= first - count; position--) {
+                if (mInfinite ? position + itemCount <= last : position < 0) {
+                    break;
+                }
+                layoutPrefetchRegistry.addPosition(mGeometry.toAdapterPosition(position),
+                        Math.max(0, mOffsetAll - mGeometry.getFrameEnd(position)));
+            }
+        }
+    }
+
+    /**
+     * 嵌套在其他RecyclerView中时，外层列表将当前控件滚动到屏幕内之前预取选中位置附近的Item
+     */
+    @Override
+    public void collectInitialPrefetchPositions(int adapterItemCount,
+                                                LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (adapterItemCount <= 0 || mInitialPrefetchItemCount <= 0) {
+            return;
+        }
+        int start = Math.max(0, Math.min(mSelectPosition - mInitialPrefetchItemCount / 2,
+                adapterItemCount - mInitialPrefetchItemCount));
+        int end = Math.min(adapterItemCount, start + mInitialPrefetchItemCount);
+        for (int position = start; position < end; position++) {
+            layoutPrefetchRegistry.addPosition(position, 0);
+        }
+    }
+
+    /**
+     * 设置滚动时沿滚动方向预取的Item数量
+     *
+     * @param count 预取数量，0表示只按滚动距离预取
+     */
+    public void setPrefetchItemCount(int count) {
+        mPrefetchItemCount = Math.max(0, count);
+    }
+
+    public int getPrefetchItemCount() {
+        return mPrefetchItemCount;
+    }
+
+    /**
+     * 设置嵌套在其他RecyclerView中时初始预取的Item数量
+     * <p>一般设置为屏幕上可见的Item数量
+     *
+     * @param count 预取数量，0表示不预取
+     */
+    public void setInitialPrefetchItemCount(int count) {
+        mInitialPrefetchItemCount = Math.max(0, count);
+    }
+
+    public int getInitialPrefetchItemCount() {
+        return mInitialPrefetchItemCount;
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        //setAdapter已经回收了所有Item，swapAdapter保留的Item在下一次布局时回收
+        mRecycleAllViews = true;
+        mPendingScrollPosition = RecyclerView.NO_POSITION;
+        mPendingAnchorPosition = RecyclerView.NO_POSITION;
+        mPendingSavedState = null;
+        mGeometry.getSizeIndex().clear();
+        mItemSizeDirty = true;
+        mMeasureCache.clear();
+        mOffsetAll = 0;
+        mSelectPosition = 0;
+        mLastSelectPosition = 0;
+    }
+
+    /**
+     * 获取整个布局在滚动方向上的空间大小
+     */
+    private int getTotalSpace() {
+        return getOrientationHelper().getTotalSpace();
+    }
+
+    /**
+     * 获取整个布局在另一个方向上的空间大小
+     */
+    private int getTotalSpaceInOther() {
+        return getOrientationHelper().getTotalSpaceInOther();
+    }
+
+    private OrientationHelper getOrientationHelper() {
+        if (mOrientationHelper == null) {
+            mOrientationHelper = OrientationHelper.createOrientationHelper(this, mOrientation);
+        }
+        return mOrientationHelper;
+    }
+
+    /**
+     * 设置滚动方向
+     *
+     * @param orientation {@link OrientationHelper#HORIZONTAL}或{@link OrientationHelper#VERTICAL}
+     */
+    public void setOrientation(int orientation) {
+        if (orientation != OrientationHelper.HORIZONTAL && orientation != OrientationHelper.VERTICAL) {
+            throw new IllegalArgumentException("invalid orientation:" + orientation);
+        }
+        assertNotInLayoutOrScroll(null);
+        if (orientation == mOrientation) {
+            return;
+        }
+        mOrientation = orientation;
+        mOrientationHelper = null;
+        mGeometry.getSizeIndex().clear();
+        mItemSizeDirty = true;
+        mRecycleAllViews = true;
+        requestConfigLayout();
+    }
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    /**
+     * 获取最大偏移量
+     */
+    private int getMaxOffset() {
+        return calculateOffsetForPosition(getItemCount() - 1);
+    }
+
+    /**
+     * 计算Item所在的位置偏移
+     *
+     * @param position 要计算Item位置
+     */
+    private int calculateOffsetForPosition(int position) {
+        return mGeometry.getOffsetForPosition(position);
+    }
+
+    /**
+     * 计算将指定位置的Item滚动到中间需要的距离
+     *
+     * @param position Item位置
+     */
+    public int getOffsetToPosition(int position) {
+        return calculateOffsetForPosition(toNearestVirtualPosition(position)) - mOffsetAll;
+    }
+
+    /**
+     * 循环滚动时，找到与居中Item最近的、对应指定Item位置的虚拟位置
+     *
+     * @param position Item位置
+     */
+    private int toNearestVirtualPosition(int position) {
+        return mGeometry.getNearestPosition(position, getVirtualCenterPosition(), getItemCount());
+    }
+
+    /**
+     * 计算Fling结束后应该停留在中间的Item位置
+     * <p>至少沿Fling方向滚动一个Item
+     *
+     * @param distance  Fling的距离
+     * @param velocityX Fling的速度
+     */
+    int getTargetPositionForDistance(int distance, int velocityX) {
+        if (getIntervalDistance() <= 0 || getItemCount() == 0) {
+            return getCenterPosition();
+        }
+        return mGeometry.getSnapPosition(mOffsetAll, distance, velocityX, getItemCount());
+    }
+
+    /**
+     * 获取Item间隔
+     */
+    private float getIntervalDistance() {
+        return mDecoratedMeasurement * mIntervalRatio;
+    }
+
+    /**
+     * 计算当前选中位置，并回调
+     */
+    private void onSelectedCallBack() {
+        mSelectPosition = getCenterPosition();
+        if (mSelectedListener != null && mSelectPosition != mLastSelectPosition) {
+            mSelectedListener.onItemSelected(mSelectPosition);
+            if (mCollectMetrics) {
+                mMetrics.selectionCallbacks++;
+            }
+        }
+        mLastSelectPosition = mSelectPosition;
+    }
+
+    /**
+     * 获取第一个可见的Item位置
+     * <p>Note:该Item为绘制在可见区域的第一个Item，有可能被第二个Item遮挡
+     * <p>根据偏移量和Item间隔直接计算，不需要遍历Item
+     */
+    public int getFirstVisiblePosition() {
+        return mGeometry.toAdapterPosition(findFirstVisiblePosition());
+    }
+
+    /**
+     * 第一个可见的Item的位置，循环滚动时为虚拟位置
+     */
+    private int findFirstVisiblePosition() {
+        if (getIntervalDistance() <= 0) {
+            return Math.min(mSelectPosition, getItemCount() - 1);
+        }
+        return mGeometry.getFirstVisiblePosition(mOffsetAll, getTotalSpace(), getItemCount());
+    }
+
+    /**
+     * 获取最后一个可见的Item位置
+     * <p>Note:该Item为绘制在可见区域的最后一个Item，有可能被倒数第二个Item遮挡
+     * <p>根据偏移量和Item间隔直接计算，不需要遍历Item
+     */
+    public int getLastVisiblePosition() {
+        return mGeometry.toAdapterPosition(findLastVisiblePosition());
+    }
+
+    /**
+     * 最后一个可见的Item的位置，循环滚动时为虚拟位置
+     */
+    private int findLastVisiblePosition() {
+        if (getIntervalDistance() <= 0) {
+            return Math.min(mSelectPosition, getItemCount() - 1);
+        }
+        return mGeometry.getLastVisiblePosition(mOffsetAll, getTotalSpace(), getItemCount());
+    }
+
+    /**
+     * 获取可见范围内最大的显示Item个数
+     */
+    public int getMaxVisibleCount() {
+        int oneSide = (int) ((getTotalSpace() - mCenterStart) / (getIntervalDistance()));
+        return oneSide * 2 + 1;
+    }
+
+    /**
+     * 获取中间位置
+     * <p>Note:该方法主要用于{@link RecyclerCoverFlow#getChildDrawingOrder(int, int)}判断中间位置
+     * <p>如果需要获取被选中的Item位置，调用{@link #getSelectedPos()}
+     */
+    public int getCenterPosition() {
+        return mGeometry.toAdapterPosition(getVirtualCenterPosition());
+    }
+
+    /**
+     * 居中Item的位置，循环滚动时为虚拟位置
+     */
+    private int getVirtualCenterPosition() {
+        return mGeometry.getCenterPosition(mOffsetAll);
+    }
+
+    /**
+     * 设置是否循环滚动
+     * <p>Item位置按Item总数取模，不需要把Adapter的Item总数设置为很大的值
+     *
+     * @param enable true:循环滚动；false:滚动到两端停止
+     */
+    public void setInfinite(boolean enable) {
+        assertNotInLayoutOrScroll(null);
+        if (enable == mInfinite) {
+            return;
+        }
+        mInfinite = enable;
+        mGeometry.setLooping(enable);
+        mRecycleAllViews = true;
+        requestConfigLayout();
+    }
+
+    public boolean getInfinite() {
+        return mInfinite;
+    }
+
+    /**
+     * 设置选中监听
+     *
+     * @param l 监听接口
+     */
+    public void setOnSelectedListener(OnSelected l) {
+        mSelectedListener = l;
+    }
+
+    /**
+     * 获取被选中Item位置
+     */
+    public int getSelectedPos() {
+        return mSelectPosition;
+    }
+
+    /**
+     * 选中监听接口
+     */
+    public interface OnSelected {
+        /**
+         * 监听选中回调
+         *
+         * @param position 显示在中间的Item的位置
+         */
+        void onItemSelected(int position);
+    }
+
+    /**
+     * Item的布局参数，记录Item当前的效果状态
+     */
+    public static class LayoutParams extends RecyclerView.LayoutParams {
+
+        /**
+         * 当前应用在Item上的效果值
+         */
+        int mEffectKey = ItemPaintCache.NO_EFFECT;
+
+        /**
+         * 停止滚动后直接设置到Item上的半透值，以及变换设置的半透值，Item的半透值为两者的乘积
+         */
+        float mEffectAlpha = 1f;
+        float mTransformAlpha = 1f;
+
+        /**
+         * 绘制时变换模式下缓存的变换矩阵，以及计算时Item的坐标和变换配置版本
+         */
+        Matrix mDrawMatrix;
+        int mDrawX;
+        int mDrawVersion;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(RecyclerView.LayoutParams source) {
+            super(source);
+        }
+    }
+
+    public static class Builder {
+        boolean isFlat = false;
+        boolean isGreyItem = false;
+        boolean isAlphaItem = false;
+        float cstIntervalRatio = -1f;
+        boolean isInfinite = false;
+        int orientation = OrientationHelper.HORIZONTAL;
+        boolean isDrawTransform = false;
+
+        public Builder setFlat(boolean flat) {
+            isFlat = flat;
+            return this;
+        }
+
+        public Builder setGreyItem(boolean greyItem) {
+            isGreyItem = greyItem;
+            return this;
+        }
+
+        public Builder setAlphaItem(boolean alphaItem) {
+            isAlphaItem = alphaItem;
+            return this;
+        }
+
+        public Builder setIntervalRatio(float ratio) {
+            cstIntervalRatio = ratio;
+            return this;
+        }
+
+        public Builder setInfinite(boolean infinite) {
+            isInfinite = infinite;
+            return this;
+        }
+
+        public Builder setOrientation(int orientation) {
+            this.orientation = orientation;
+            return this;
+        }
+
+        public Builder setDrawTransform(boolean drawTransform) {
+            isDrawTransform = drawTransform;
+            return this;
+        }
+
+        /**
+         * 把所有配置应用到已有的布局器上，只重新布局一次，不需要重新创建布局器
+         *
+         * @param manger 要修改的布局器
+         */
+        public void applyTo(CoverFlowLayoutManger manger) {
+            manger.applyConfig(this);
+        }
+
+        public CoverFlowLayoutManger build() {
+            CoverFlowLayoutManger manger = new CoverFlowLayoutManger(isFlat, isGreyItem,
+                    isAlphaItem, cstIntervalRatio);
+            manger.setInfinite(isInfinite);
+            manger.setOrientation(orientation);
+            manger.setDrawTransform(isDrawTransform);
+            return manger;
+        }
+    }
+
+    /**
+     * 保存的状态
+     * <p>除了偏移量和选中位置，还保存了测量结果，控件与Item大小不变时恢复不需要重新测量
+     */
+    static class SavedState implements Parcelable {
+        int offset;
+        int selectPosition;
+        int itemWidth;
+        int itemHeight;
+        int width;
+        int height;
+
+        SavedState() {
+
+        }
+
+        SavedState(Parcel in) {
+            offset = in.readInt();
+            selectPosition = in.readInt();
+            itemWidth = in.readInt();
+            itemHeight = in.readInt();
+            width = in.readInt();
+            height = in.readInt();
+        }
+
+        SavedState(SavedState other) {
+            offset = other.offset;
+            selectPosition = other.selectPosition;
+            itemWidth = other.itemWidth;
+            itemHeight = other.itemHeight;
+            width = other.width;
+            height = other.height;
+        }
+
+        /**
+         * 控件大小与保存时是否一致，且保存时已经完成了测量
+         */
+        boolean isSameSize(int width, int height) {
+            return itemWidth > 0 && itemHeight > 0
+                    && this.width == width && this.height == height;
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeInt(offset);
+            dest.writeInt(selectPosition);
+            dest.writeInt(itemWidth);
+            dest.writeInt(itemHeight);
+            dest.writeInt(width);
+            dest.writeInt(height);
+        }
+
+        public static final Creator<SavedState> CREATOR
+                = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.huijie.app.coverflow;
+
+import android.content.Context;
+import android.os.Trace;
+import android.util.DisplayMetrics;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearSmoothScroller;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 将目标Item滚动到中间的SmoothScroller
+ * <p>滚动通过RecyclerView的滚动流程完成，每次偏移都会经过
+ * {@link CoverFlowLayoutManger#scrollHorizontallyBy(int, RecyclerView.Recycler, RecyclerView.State)}
+ */
+
+class CoverFlowSmoothScroller extends LinearSmoothScroller {
+
+    /**
+     * 滚动一英寸需要的时间
+     */
+    private static final float MILLISECONDS_PER_INCH = 100f;
+
+    private static final String TRACE_SEEK_TARGET_STEP = "CoverFlowSmoothScroller#onSeekTargetStep";
+
+    private static final String TRACE_TARGET_FOUND = "CoverFlowSmoothScroller#onTargetFound";
+
+    CoverFlowSmoothScroller(Context context) {
+        super(context);
+    }
+
+    @Override
+    public int calculateDxToMakeVisible(View view, int snapPreference) {
+        RecyclerView.LayoutManager layoutManager = getLayoutManager();
+        if (!(layoutManager instanceof CoverFlowLayoutManger)) {
+            return 0;
+        }
+        CoverFlowLayoutManger coverFlow = (CoverFlowLayoutManger) layoutManager;
+        if (!coverFlow.canScrollHorizontally()) {
+            return 0;
+        }
+        return -coverFlow.getOffsetToPosition(coverFlow.getPosition(view));
+    }
+
+    @Override
+    public int calculateDyToMakeVisible(View view, int snapPreference) {
+        RecyclerView.LayoutManager layoutManager = getLayoutManager();
+        if (!(layoutManager instanceof CoverFlowLayoutManger)) {
+            return 0;
+        }
+        CoverFlowLayoutManger coverFlow = (CoverFlowLayoutManger) layoutManager;
+        if (!coverFlow.canScrollVertically()) {
+            return 0;
+        }
+        return -coverFlow.getOffsetToPosition(coverFlow.getPosition(view));
+    }
+
+    @Override
+    protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+        Trace.beginSection(TRACE_SEEK_TARGET_STEP);
+        super.onSeekTargetStep(dx, dy, state, action);
+        Trace.endSection();
+    }
+
+    @Override
+    protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+        Trace.beginSection(TRACE_TARGET_FOUND);
+        super.onTargetFound(targetView, state, action);
+        Trace.endSection();
+    }
+
+    @Override
+    protected float calculateSpeedPerPixel(DisplayMetrics displayMetrics) {
+        return MILLISECONDS_PER_INCH / displayMetrics.densityDpi;
+    }
+}
@@ -0,0 +1,96 @@
+package com.huijie.app.coverflow;
+
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.SnapHelper;
+
+/**
+ * Cover Flow的居中吸附
+ * <p>Fling时直接计算出最终停留的Item，只启动一次滚动；
+ * 拖拽停止后将最靠近中间的Item滚动到中间
+ */
+
+public class CoverFlowSnapHelper extends SnapHelper {
+
+    private RecyclerView mRecyclerView;
+
+    /**
+     * 吸附距离，复用避免每次计算都创建数组
+     */
+    private final int[] mSnapDistance = new int[2];
+
+    /**
+     * Fling时是否由SnapHelper计算目标并滚动
+     */
+    private boolean mSnapOnFling = true;
+
+    @Override
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView) throws IllegalStateException {
+        mRecyclerView = recyclerView;
+        super.attachToRecyclerView(recyclerView);
+    }
+
+    /**
+     * 设置Fling时是否由SnapHelper处理
+     * <p>为false时Fling交给RecyclerView的惯性滚动，SnapHelper只负责停止后的居中
+     */
+    public void setSnapOnFling(boolean snapOnFling) {
+        mSnapOnFling = snapOnFling;
+    }
+
+    @Override
+    public boolean onFling(int velocityX, int velocityY) {
+        return mSnapOnFling && super.onFling(velocityX, velocityY);
+    }
+
+    @Override
+    public int[] calculateDistanceToFinalSnap(RecyclerView.LayoutManager layoutManager, View targetView) {
+        mSnapDistance[0] = 0;
+        mSnapDistance[1] = 0;
+        if (layoutManager instanceof CoverFlowLayoutManger) {
+            CoverFlowLayoutManger coverFlow = (CoverFlowLayoutManger) layoutManager;
+            int index = coverFlow.canScrollHorizontally() ? 0 : 1;
+            mSnapDistance[index] = coverFlow.getOffsetToPosition(coverFlow.getPosition(targetView));
+        }
+        return mSnapDistance;
+    }
+
+    @Override
+    public View findSnapView(RecyclerView.LayoutManager layoutManager) {
+        if (!(layoutManager instanceof CoverFlowLayoutManger) || layoutManager.getChildCount() == 0) {
+            return null;
+        }
+        return layoutManager.findViewByPosition(((CoverFlowLayoutManger) layoutManager).getCenterPosition());
+    }
+
+    @Override
+    public int findTargetSnapPosition(RecyclerView.LayoutManager layoutManager, int velocityX, int velocityY) {
+        if (!(layoutManager instanceof CoverFlowLayoutManger) || layoutManager.getItemCount() == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        CoverFlowLayoutManger coverFlow = (CoverFlowLayoutManger) layoutManager;
+        //按照正常Fling的距离计算最终停留的位置
+        int[] distances = calculateScrollDistance(velocityX, velocityY);
+        int target;
+        if (coverFlow.canScrollHorizontally()) {
+            target = coverFlow.getTargetPositionForDistance(distances[0], velocityX);
+        } else {
+            target = coverFlow.getTargetPositionForDistance(distances[1], velocityY);
+        }
+        if (mRecyclerView instanceof RecyclerCoverFlow) {
+            ((RecyclerCoverFlow) mRecyclerView).dispatchFlingTarget(target);
+        }
+        return target;
+    }
+
+    @Override
+    protected RecyclerView.SmoothScroller createScroller(RecyclerView.LayoutManager layoutManager) {
+        if (!(layoutManager instanceof RecyclerView.SmoothScroller.ScrollVectorProvider)
+                || mRecyclerView == null) {
+            return null;
+        }
+        return new CoverFlowSmoothScroller(mRecyclerView.getContext());
+    }
+}
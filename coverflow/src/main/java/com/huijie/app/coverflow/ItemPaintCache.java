@@ -0,0 +1,110 @@
+package com.huijie.app.coverflow;
+
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.Paint;
+
+/**
+ * Item灰度和半透效果使用的Paint缓存
+ * <p>灰度值和半透值按等级量化，每个等级组合只创建一次Paint和ColorMatrixColorFilter，
+ * 滑动时只需要在等级变化时替换硬件层的Paint
+ */
+
+class ItemPaintCache {
+
+    /**
+     * 灰度值量化等级数
+     */
+    static final int GREY_LEVELS = 64;
+
+    /**
+     * 半透值量化等级数
+     */
+    static final int ALPHA_LEVELS = 32;
+
+    /**
+     * 没有应用任何效果
+     */
+    static final int NO_EFFECT = -1;
+
+    /**
+     * 不需要灰度和半透，可以移除硬件层的效果值
+     */
+    static final int IDENTITY = key(GREY_LEVELS - 1, ALPHA_LEVELS - 1);
+
+    private final Paint[] mPaints = new Paint[GREY_LEVELS * ALPHA_LEVELS];
+
+    /**
+     * 灰度值对应的等级
+     *
+     * @param value 灰度值[0, 1]
+     */
+    static int greyLevel(float value) {
+        return level(value, GREY_LEVELS);
+    }
+
+    /**
+     * 半透值对应的等级
+     *
+     * @param alpha 半透值[0, 1]
+     */
+    static int alphaLevel(float alpha) {
+        return level(alpha, ALPHA_LEVELS);
+    }
+
+    /**
+     * 等级组合对应的效果值
+     */
+    static int key(int greyLevel, int alphaLevel) {
+        return greyLevel * ALPHA_LEVELS + alphaLevel;
+    }
+
+    /**
+     * 效果值是否只有半透，不需要灰度
+     */
+    static boolean isAlphaOnly(int key) {
+        return key / ALPHA_LEVELS == GREY_LEVELS - 1;
+    }
+
+    /**
+     * 效果值对应的半透值[0, 1]
+     */
+    static float alphaOf(int key) {
+        return (key % ALPHA_LEVELS) * 1.0f / (ALPHA_LEVELS - 1);
+    }
+
+    private static int level(float value, int levels) {
+        int level = Math.round(value * (levels - 1));
+        if (level < 0) {
+            return 0;
+        }
+        return level > levels - 1 ? levels - 1 : level;
+    }
+
+    /**
+     * 获取效果值对应的Paint，同一个效果值只创建一次
+     *
+     * @param key {@link #key(int, int)}
+     */
+    Paint getPaint(int key) {
+        Paint paint = mPaints[key];
+        if (paint == null) {
+            paint = new Paint();
+            int greyLevel = key / ALPHA_LEVELS;
+            int alphaLevel = key % ALPHA_LEVELS;
+            if (greyLevel != GREY_LEVELS - 1) {
+                float value = greyLevel * 1.0f / (GREY_LEVELS - 1);
+                ColorMatrix cm = new ColorMatrix(new float[]{
+                        value, 0, 0, 0, 120 * (1 - value),
+                        0, value, 0, 0, 120 * (1 - value),
+                        0, 0, value, 0, 120 * (1 - value),
+                        0, 0, 0, 1, 250 * (1 - value),
+                });
+                paint.setColorFilter(new ColorMatrixColorFilter(cm));
+            }
+            paint.setAlpha(Math.round(alphaLevel * 255.0f / (ALPHA_LEVELS - 1)));
+            mPaints[key] = paint;
+        }
+        return paint;
+    }
+}
@@ -0,0 +1,175 @@
+package com.huijie.app.coverflow;
+
+import android.graphics.Camera;
+import android.graphics.Matrix;
+import android.view.View;
+
+/**
+ * {@link ItemTransformer}计算出的Item属性
+ * <p>每次设置View属性都会使Item的显示列表失效，{@link #applyTo(View)}把每个值与Item当前的值比较，
+ * 差值小于阈值时不设置。比较的是Item上的值而不是上次计算的值，跳过的变化不会累积；
+ * 初始值总是精确设置，停止滚动后的Item不会残留变换
+ * <p>LayoutManager只保留一个实例，每个Item使用前调用{@link #reset()}
+ */
+
+public final class ItemTransform {
+
+    /**
+     * 表示Item中心的锚点值
+     */
+    public static final float PIVOT_CENTER = Float.NaN;
+
+    private static final float SCALE_EPSILON = 0.001f;
+
+    private static final float ROTATION_EPSILON = 0.05f;
+
+    private static final float ALPHA_EPSILON = 0.5f / 255;
+
+    private static final float PIXEL_EPSILON = 0.1f;
+
+    public float scaleX;
+    public float scaleY;
+    public float rotation;
+    public float rotationX;
+    public float rotationY;
+    public float alpha;
+    public float translationX;
+    public float translationY;
+
+    /**
+     * {@link #PIVOT_CENTER}或以像素为单位的锚点
+     */
+    public float pivotX;
+
+    /**
+     * {@link #PIVOT_CENTER}或以像素为单位的锚点
+     */
+    public float pivotY;
+
+    /**
+     * 只在{@link #getMatrix(View, Matrix)}中使用
+     */
+    private Camera mCamera;
+    private Matrix mMatrix3D;
+
+    public ItemTransform() {
+        reset();
+    }
+
+    /**
+     * 所有属性恢复初始值，Item按原样绘制
+     */
+    public void reset() {
+        scaleX = 1f;
+        scaleY = 1f;
+        rotation = 0f;
+        rotationX = 0f;
+        rotationY = 0f;
+        alpha = 1f;
+        translationX = 0f;
+        translationY = 0f;
+        pivotX = PIVOT_CENTER;
+        pivotY = PIVOT_CENTER;
+    }
+
+    public void setScale(float scale) {
+        scaleX = scale;
+        scaleY = scale;
+    }
+
+    /**
+     * 把变化的属性设置到Item上，需要在Item布局后调用，{@link #PIVOT_CENTER}才能换算成坐标
+     *
+     * @return 设置的属性数量
+     */
+    public int applyTo(View view) {
+        int writes = 0;
+        final float pivotX = Float.isNaN(this.pivotX) ? view.getWidth() * 0.5f : this.pivotX;
+        final float pivotY = Float.isNaN(this.pivotY) ? view.getHeight() * 0.5f : this.pivotY;
+        if (view.getPivotX() != pivotX) {
+            view.setPivotX(pivotX);
+            writes++;
+        }
+        if (view.getPivotY() != pivotY) {
+            view.setPivotY(pivotY);
+            writes++;
+        }
+        if (changed(view.getScaleX(), scaleX, SCALE_EPSILON, 1f)) {
+            view.setScaleX(scaleX);
+            writes++;
+        }
+        if (changed(view.getScaleY(), scaleY, SCALE_EPSILON, 1f)) {
+            view.setScaleY(scaleY);
+            writes++;
+        }
+        if (changed(view.getRotation(), rotation, ROTATION_EPSILON, 0f)) {
+            view.setRotation(rotation);
+            writes++;
+        }
+        if (changed(view.getRotationX(), rotationX, ROTATION_EPSILON, 0f)) {
+            view.setRotationX(rotationX);
+            writes++;
+        }
+        if (changed(view.getRotationY(), rotationY, ROTATION_EPSILON, 0f)) {
+            view.setRotationY(rotationY);
+            writes++;
+        }
+        if (changed(view.getAlpha(), alpha, ALPHA_EPSILON, 1f)) {
+            view.setAlpha(alpha);
+            writes++;
+        }
+        if (changed(view.getTranslationX(), translationX, PIXEL_EPSILON, 0f)) {
+            view.setTranslationX(translationX);
+            writes++;
+        }
+        if (changed(view.getTranslationY(), translationY, PIXEL_EPSILON, 0f)) {
+            view.setTranslationY(translationY);
+            writes++;
+        }
+        return writes;
+    }
+
+    /**
+     * 计算按这些属性绘制Item的矩阵，坐标系为父View的坐标系
+     * <p>结果与View自身的变换矩阵相同，但不包含半透值，用于绘制时变换Item而不修改Item的属性
+     *
+     * @param view 已布局并且属性为初始值的Item
+     * @param out  保存计算结果
+     */
+    public void getMatrix(View view, Matrix out) {
+        final float pivotX = Float.isNaN(this.pivotX) ? view.getWidth() * 0.5f : this.pivotX;
+        final float pivotY = Float.isNaN(this.pivotY) ? view.getHeight() * 0.5f : this.pivotY;
+        if (rotationX != 0 || rotationY != 0) {
+            if (mCamera == null) {
+                mCamera = new Camera();
+                mMatrix3D = new Matrix();
+            }
+            //变换顺序与RenderNode相同，相机距离按View的方式换算
+            out.setScale(scaleX, scaleY, pivotX, pivotY);
+            final float dpi = view.getResources().getDisplayMetrics().densityDpi;
+            mCamera.save();
+            mCamera.setLocation(0, 0, -view.getCameraDistance() / dpi);
+            mCamera.rotateX(rotationX);
+            mCamera.rotateY(rotationY);
+            mCamera.rotateZ(-rotation);
+            mCamera.getMatrix(mMatrix3D);
+            mCamera.restore();
+            mMatrix3D.preTranslate(-pivotX, -pivotY);
+            mMatrix3D.postTranslate(pivotX + translationX, pivotY + translationY);
+            out.postConcat(mMatrix3D);
+        } else {
+            out.setTranslate(translationX, translationY);
+            out.preRotate(rotation, pivotX, pivotY);
+            out.preScale(scaleX, scaleY, pivotX, pivotY);
+        }
+        out.preTranslate(-view.getLeft(), -view.getTop());
+        out.postTranslate(view.getLeft(), view.getTop());
+    }
+
+    /**
+     * @param exact 即使差值在阈值内也要设置的值
+     */
+    private static boolean changed(float current, float target, float epsilon, float exact) {
+        return Math.abs(current - target) > epsilon || (target == exact && current != exact);
+    }
+}
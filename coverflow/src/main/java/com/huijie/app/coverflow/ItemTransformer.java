@@ -0,0 +1,20 @@
+package com.huijie.app.coverflow;
+
+import android.view.View;
+
+/**
+ * 计算Item的变换
+ * <p>每次布局或滚动时，LayoutManager对每个Item传入重置后的{@link ItemTransform}调用一次
+ * {@link #transformItem(View, float, ItemTransform)}，再把变化的属性设置到Item上，
+ * 实现中不要直接修改Item的属性
+ */
+
+public interface ItemTransformer {
+
+    /**
+     * @param item      已布局的Item，可以读取大小和布局参数
+     * @param offset    Item在滚动方向上与居中位置的距离，单位像素，当前Item为0
+     * @param transform 传入时为初始值，设置Item需要的属性
+     */
+    void transformItem(View item, float offset, ItemTransform transform);
+}
@@ -0,0 +1,104 @@
+package com.huijie.app.coverflow;
+
+/**
+ * LayoutManager一次布局或滚动的统计
+ * <p>每个LayoutManager只保留一个实例，每次开始时重置，结束时传给{@link Listener}，统计不分配内存。
+ * 没有设置监听时不读取时间也不更新计数。只在{@link Listener#onLayoutPass(LayoutMetrics)}中读取，
+ * 不要保存这个实例
+ */
+
+public class LayoutMetrics {
+
+    /**
+     * 由{@link androidx.recyclerview.widget.RecyclerView.LayoutManager#onLayoutChildren}开始
+     */
+    public static final int PASS_LAYOUT = 0;
+
+    /**
+     * 由scrollHorizontallyBy或scrollVerticallyBy开始
+     */
+    public static final int PASS_SCROLL = 1;
+
+    public interface Listener {
+        /**
+         * 每次布局和滚动结束时在主线程回调
+         */
+        void onLayoutPass(LayoutMetrics metrics);
+    }
+
+    /**
+     * {@link #PASS_LAYOUT}或{@link #PASS_SCROLL}
+     */
+    public int passType;
+
+    /**
+     * 耗时，单位纳秒
+     */
+    public long durationNanos;
+
+    /**
+     * 添加到RecyclerView的Item数量
+     */
+    public int childrenAdded;
+
+    /**
+     * 分离到Scrap的Item数量，之后由RecyclerView重新添加或回收
+     */
+    public int childrenScrapped;
+
+    /**
+     * 移除并回收的Item数量
+     */
+    public int childrenRecycled;
+
+    /**
+     * Recycler#getViewForPosition的调用次数，每次都可能创建或绑定ViewHolder
+     */
+    public int viewsRequested;
+
+    /**
+     * 实际测量的Item数量，不包含{@link MeasureCache}跳过的测量
+     */
+    public int measures;
+
+    /**
+     * 设置了变换或效果的Item数量
+     */
+    public int effectsApplied;
+
+    /**
+     * 设置的View属性数量，不包含{@link ItemTransform#applyTo(android.view.View)}比较后跳过的属性
+     */
+    public int propertyWrites;
+
+    /**
+     * 创建或移除硬件层的次数
+     */
+    public int layerChanges;
+
+    /**
+     * Item选中回调的次数
+     */
+    public int selectionCallbacks;
+
+    private long mStartNanos;
+
+    public void begin(int passType) {
+        this.passType = passType;
+        durationNanos = 0;
+        childrenAdded = 0;
+        childrenScrapped = 0;
+        childrenRecycled = 0;
+        viewsRequested = 0;
+        measures = 0;
+        effectsApplied = 0;
+        propertyWrites = 0;
+        layerChanges = 0;
+        selectionCallbacks = 0;
+        mStartNanos = System.nanoTime();
+    }
+
+    public void end() {
+        durationNanos = System.nanoTime() - mStartNanos;
+    }
+}
@@ -0,0 +1,86 @@
+package com.huijie.app.coverflow;
+
+import android.graphics.Rect;
+import android.util.SparseArray;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 按ViewType记录最后一次测量的MeasureSpec和测量结果
+ * <p>同一类型的复用Item在测量后没有请求布局、MeasureSpec不变并且大小仍是记录的大小时，
+ * 跳过{@link View#measure(int, int)}。MeasureSpec已经包含布局参数、外边距和ItemDecoration的偏移。
+ * 同一类型的Item大小相同，这也是LayoutManager本身的要求
+ */
+
+public class MeasureCache {
+
+    private final SparseArray<Entry> mEntries = new SparseArray<>();
+
+    private final Rect mInsets = new Rect();
+
+    private int mMeasureCount;
+
+    /**
+     * 与已用空间为0的{@link RecyclerView.LayoutManager#measureChildWithMargins(View, int, int)}相同，
+     * 测量结果已知时跳过测量
+     *
+     * @return true:进行了测量；false:跳过了测量
+     */
+    public boolean measureChildWithMargins(RecyclerView.LayoutManager layoutManager, View child) {
+        final RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        layoutManager.calculateItemDecorationsForChild(child, mInsets);
+        final int widthSpec = RecyclerView.LayoutManager.getChildMeasureSpec(layoutManager.getWidth(),
+                layoutManager.getWidthMode(),
+                layoutManager.getPaddingLeft() + layoutManager.getPaddingRight()
+                        + lp.leftMargin + lp.rightMargin + mInsets.left + mInsets.right,
+                lp.width, layoutManager.canScrollHorizontally());
+        final int heightSpec = RecyclerView.LayoutManager.getChildMeasureSpec(layoutManager.getHeight(),
+                layoutManager.getHeightMode(),
+                layoutManager.getPaddingTop() + layoutManager.getPaddingBottom()
+                        + lp.topMargin + lp.bottomMargin + mInsets.top + mInsets.bottom,
+                lp.height, layoutManager.canScrollVertically());
+
+        final int viewType = layoutManager.getItemViewType(child);
+        Entry entry = mEntries.get(viewType);
+        if (entry != null && entry.widthSpec == widthSpec && entry.heightSpec == heightSpec
+                && !child.isLayoutRequested()
+                && child.getMeasuredWidth() == entry.measuredWidth
+                && child.getMeasuredHeight() == entry.measuredHeight) {
+            return false;
+        }
+
+        child.measure(widthSpec, heightSpec);
+        mMeasureCount++;
+        if (entry == null) {
+            entry = new Entry();
+            mEntries.put(viewType, entry);
+        }
+        entry.widthSpec = widthSpec;
+        entry.heightSpec = heightSpec;
+        entry.measuredWidth = child.getMeasuredWidth();
+        entry.measuredHeight = child.getMeasuredHeight();
+        return true;
+    }
+
+    /**
+     * @return 实际测量的次数
+     */
+    public int getMeasureCount() {
+        return mMeasureCount;
+    }
+
+    /**
+     * 清空记录的结果，例如Adapter变化时
+     */
+    public void clear() {
+        mEntries.clear();
+    }
+
+    private static class Entry {
+        int widthSpec;
+        int heightSpec;
+        int measuredWidth;
+        int measuredHeight;
+    }
+}
@@ -0,0 +1,399 @@
+package com.huijie.app.coverflow;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.hardware.SensorManager;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.huijie.app.coverflow.viewpager.OrientationHelper;
+
+/**
+ * 继承RecyclerView重写{@link #getChildDrawingOrder(int, int)}对Item的绘制顺序进行控制
+ *
+ * @author Chen Xiaoping (562818444@qq.com)
+ * @version V1.0
+ * @Datetime 2017-04-18
+ */
+
+public class RecyclerCoverFlow extends RecyclerView {
+
+    /**
+     * Fling模式：松手时计算出最终停留的Item，通过SmoothScroller滚动到该Item
+     */
+    public static final int FLING_MODE_SNAP = 0;
+
+    /**
+     * Fling模式：松手时计算出最终停留的Item，修正Fling速度，使惯性滚动正好停在该Item，
+     * 不需要额外的居中动画
+     */
+    public static final int FLING_MODE_SPLINE = 1;
+
+    private static final float INFLEXION = 0.35f; // Tension lines cross at (INFLEXION, 1)
+    private float mFlingFriction = ViewConfiguration.getScrollFriction();
+    private static float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private float mPhysicalCoeff = 0;
+
+
+    /**
+     * 按下时在滚动方向上的坐标
+     */
+    private float mDownX;
+
+    /**
+     * 居中吸附，Fling和拖拽停止后的居中都通过RecyclerView的滚动完成
+     */
+    private CoverFlowSnapHelper mSnapHelper;
+
+    /**
+     * Fling模式
+     */
+    private int mFlingMode = FLING_MODE_SNAP;
+
+    /**
+     * Fling目标监听
+     */
+    private OnFlingTargetListener mFlingTargetListener;
+
+    /**
+     * 倒影，未开启时为null
+     */
+    private ReflectionDecoration mReflection;
+
+    public RecyclerCoverFlow(Context context) {
+        super(context);
+        init();
+    }
+
+    public RecyclerCoverFlow(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public RecyclerCoverFlow(Context context, @Nullable AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init();
+    }
+
+    private void init() {
+        setLayoutManager(new CoverFlowLayoutManger.Builder().build());
+        //开启重新排序
+        setChildrenDrawingOrderEnabled(true);
+        setOverScrollMode(OVER_SCROLL_NEVER);
+        mSnapHelper = new CoverFlowSnapHelper();
+        mSnapHelper.attachToRecyclerView(this);
+    }
+
+    /**
+     * 设置是否为普通平面滚动
+     *
+     * @param isFlat true:平面滚动；false:叠加缩放滚动
+     */
+    public void setFlatFlow(boolean isFlat) {
+        getCoverFlowLayout().setFlatFlow(isFlat);
+    }
+
+    /**
+     * 设置Item灰度渐变
+     *
+     * @param greyItem true:Item灰度渐变；false:Item灰度不变
+     */
+    public void setGreyItem(boolean greyItem) {
+        getCoverFlowLayout().setGreyItem(greyItem);
+    }
+
+    /**
+     * 设置Item灰度渐变
+     *
+     * @param alphaItem true:Item半透渐变；false:Item透明度不变
+     */
+    public void setAlphaItem(boolean alphaItem) {
+        getCoverFlowLayout().setAlphaItem(alphaItem);
+    }
+
+    /**
+     * 设置Item的间隔比例
+     *
+     * @param intervalRatio Item间隔比例。
+     *                      即：item的宽 x intervalRatio
+     */
+    public void setIntervalRatio(float intervalRatio) {
+        getCoverFlowLayout().setIntervalRatio(intervalRatio);
+    }
+
+    /**
+     * 设置是否循环滚动
+     *
+     * @param infinite true:循环滚动；false:滚动到两端停止
+     */
+    public void setInfinite(boolean infinite) {
+        getCoverFlowLayout().setInfinite(infinite);
+    }
+
+    /**
+     * 设置滚动方向
+     *
+     * @param orientation {@link OrientationHelper#HORIZONTAL}或{@link OrientationHelper#VERTICAL}
+     */
+    public void setOrientation(int orientation) {
+        getCoverFlowLayout().setOrientation(orientation);
+    }
+
+    /**
+     * 设置自定义Item变换
+     *
+     * @param transformer 为null时恢复默认的缩放和旋转
+     */
+    public void setItemTransformer(ItemTransformer transformer) {
+        getCoverFlowLayout().setItemTransformer(transformer);
+    }
+
+    /**
+     * 设置是否在绘制时变换Item，滚动时只需要平移Item并重绘
+     *
+     * @param drawTransform true:绘制时通过变换矩阵缩放和旋转；false:布局时设置Item属性
+     */
+    public void setDrawTransform(boolean drawTransform) {
+        getCoverFlowLayout().setDrawTransform(drawTransform);
+    }
+
+    /**
+     * 设置是否绘制Item倒影，倒影在后台线程生成并缓存
+     * <p>只在横向滚动时绘制；控件从窗口移除时自动释放缓存
+     *
+     * @param reflection true:绘制倒影；false:移除倒影并释放缓存
+     */
+    public void setReflection(boolean reflection) {
+        if (reflection == (mReflection != null)) {
+            return;
+        }
+        if (reflection) {
+            mReflection = new ReflectionDecoration();
+            addItemDecoration(mReflection);
+        } else {
+            removeItemDecoration(mReflection);
+            mReflection.release();
+            mReflection = null;
+        }
+    }
+
+    /**
+     * 获取倒影，用于修改倒影参数或在Item内容更新后刷新倒影
+     *
+     * @return 未开启倒影时返回null
+     */
+    public ReflectionDecoration getReflection() {
+        return mReflection;
+    }
+
+    /**
+     * 批量修改配置，所有配置修改完成后只重新布局一次，已绑定的Item不会重新绑定
+     *
+     * @param builder 新的配置
+     */
+    public void applyConfig(CoverFlowLayoutManger.Builder builder) {
+        builder.applyTo(getCoverFlowLayout());
+    }
+
+    @Override
+    public void setLayoutManager(LayoutManager layout) {
+        if (!(layout instanceof CoverFlowLayoutManger)) {
+            throw new IllegalArgumentException("The layout manager must be CoverFlowLayoutManger");
+        }
+        super.setLayoutManager(layout);
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        Matrix matrix = getCoverFlowLayout().getChildDrawMatrix(child);
+        if (matrix == null) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        //绘制时变换模式，矩阵按Item当前位置计算并缓存
+        int saveCount = canvas.save();
+        canvas.concat(matrix);
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
+    }
+
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        //绘制顺序在每次布局时已经计算好
+        return getCoverFlowLayout().getChildDrawingOrder(childCount, i);
+    }
+
+    /**
+     * 获取LayoutManger，并强制转换为CoverFlowLayoutManger
+     */
+    public CoverFlowLayoutManger getCoverFlowLayout() {
+        return ((CoverFlowLayoutManger) getLayoutManager());
+    }
+
+    /**
+     * 获取被选中的Item位置
+     */
+    public int getSelectedPos() {
+        return getCoverFlowLayout().getSelectedPos();
+    }
+
+    /**
+     * 设置选中监听
+     *
+     * @param l 监听接口
+     */
+    public void setOnItemSelectedListener(CoverFlowLayoutManger.OnSelected l) {
+        getCoverFlowLayout().setOnSelectedListener(l);
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        switch (ev.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = getScrollCoordinate(ev);
+                //设置父类不拦截滑动事件
+                getParent().requestDisallowInterceptTouchEvent(true);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (!getCoverFlowLayout().getInfinite() &&
+                        ((getScrollCoordinate(ev) > mDownX && getCoverFlowLayout().getCenterPosition() == 0) ||
+                        (getScrollCoordinate(ev) < mDownX && getCoverFlowLayout().getCenterPosition() ==
+                                getCoverFlowLayout().getItemCount() - 1))) {
+                    //如果是滑动到了最前和最后，开放父类滑动事件拦截
+                    getParent().requestDisallowInterceptTouchEvent(false);
+                } else {
+                    //滑动到中间，设置父类不拦截滑动事件
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                break;
+            default:
+                break;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    /**
+     * 触摸点在滚动方向上的坐标
+     */
+    private float getScrollCoordinate(MotionEvent ev) {
+        return getCoverFlowLayout().canScrollHorizontally() ? ev.getX() : ev.getY();
+    }
+
+    /**
+     * 设置Fling模式
+     *
+     * @param flingMode {@link #FLING_MODE_SNAP}或{@link #FLING_MODE_SPLINE}
+     */
+    public void setFlingMode(int flingMode) {
+        mFlingMode = flingMode;
+        mSnapHelper.setSnapOnFling(flingMode == FLING_MODE_SNAP);
+    }
+
+    public int getFlingMode() {
+        return mFlingMode;
+    }
+
+    /**
+     * 设置Fling目标监听，Fling开始时就会回调最终停留的Item位置，可以提前加载该Item的图片
+     *
+     * @param l 监听接口
+     */
+    public void setOnFlingTargetListener(OnFlingTargetListener l) {
+        mFlingTargetListener = l;
+    }
+
+    /**
+     * 回调Fling最终停留的Item位置
+     */
+    void dispatchFlingTarget(int position) {
+        if (mFlingTargetListener != null && position != NO_POSITION) {
+            mFlingTargetListener.onFlingTarget(position);
+        }
+    }
+
+    @Override
+    public boolean fling(int velocityX, int velocityY) {
+        CoverFlowLayoutManger manger = getCoverFlowLayout();
+        boolean horizontal = manger.canScrollHorizontally();
+        int velocity = horizontal ? velocityX : velocityY;
+        if (mFlingMode != FLING_MODE_SPLINE || Math.abs(velocity) < getMinFlingVelocity()) {
+            //吸附模式由CoverFlowSnapHelper处理
+            return super.fling(velocityX, velocityY);
+        }
+        //缩小滚动距离
+        int fling = (int) (velocity * 0.40f);
+        int distance = (int) getSplineFlingDistance(fling);
+        int target = manger.getTargetPositionForDistance(velocity > 0 ? distance : -distance, velocity);
+        //目标Item居中需要的准确距离
+        int exactDistance = manger.getOffsetToPosition(target);
+        if (exactDistance == 0) {
+            return false;
+        }
+        int fixVelocity = getVelocity(Math.abs(exactDistance));
+        if (fixVelocity > getMaxFlingVelocity()) {
+            //超过最大速度无法准确停止，交给吸附处理
+            return super.fling(velocityX, velocityY);
+        }
+        dispatchFlingTarget(target);
+        fixVelocity = exactDistance > 0 ? fixVelocity : -fixVelocity;
+        return horizontal ? super.fling(fixVelocity, 0) : super.fling(0, fixVelocity);
+    }
+
+    /**
+     * 根据松手后的滑动速度计算出fling的距离
+     *
+     * @param velocity
+     * @return
+     */
+    private double getSplineFlingDistance(int velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return mFlingFriction * getPhysicalCoeff() * Math.exp(DECELERATION_RATE / decelMinusOne * l);
+    }
+
+    private double getSplineDeceleration(int velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (mFlingFriction * getPhysicalCoeff()));
+    }
+
+    /**
+     * 根据距离计算出速度
+     *
+     * @param distance
+     * @return
+     */
+    private int getVelocity(double distance) {
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        double aecel = Math.log(distance / (mFlingFriction * getPhysicalCoeff())) * decelMinusOne / DECELERATION_RATE;
+        //向上取整，避免速度偏小导致停在目标Item之前
+        return Math.abs((int) Math.ceil(Math.exp(aecel) * (mFlingFriction * getPhysicalCoeff()) / INFLEXION));
+    }
+
+    private float getPhysicalCoeff() {
+        if (mPhysicalCoeff == 0) {
+            final float ppi = this.getResources().getDisplayMetrics().density * 160.0f;
+            mPhysicalCoeff = SensorManager.GRAVITY_EARTH // g (m/s^2)
+                    * 39.37f // inch/meter
+                    * ppi
+                    * 0.84f; // look and feel tuning
+        }
+        return mPhysicalCoeff;
+    }
+
+    /**
+     * Fling目标监听接口
+     */
+    public interface OnFlingTargetListener {
+        /**
+         * Fling开始时回调最终停留在中间的Item位置
+         *
+         * @param position 最终停留的Item位置
+         */
+        void onFlingTarget(int position);
+    }
+}
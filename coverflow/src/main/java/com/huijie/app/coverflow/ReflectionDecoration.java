@@ -0,0 +1,631 @@
+package com.huijie.app.coverflow;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Shader;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.huijie.app.coverflow.core.PositionShift;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Item倒影
+ * <p>在所有Item绘制之前，一次性把倒影绘制在每个Item的下方，倒影跟随Item的缩放、旋转和效果
+ * <p>倒影位图只生成一次：主线程只截取Item底部需要的部分，翻转和渐变遮罩在后台线程完成，
+ * 结果按Adapter位置和Item的stable id缓存在按字节数限制大小的LRU中，命中时每个Item只需要绘制一次位图。
+ * Item插入、移除和移动后缓存按新的位置迁移
+ * <p>截取需要用软件Canvas重新绘制Item，只能在主线程完成，这是有意的取舍：每帧最多截取
+ * {@link #MAX_CAPTURES_PER_FRAME}个Item，Fling和平滑滚动时不截取，停止后再补齐，
+ * 所以滚动中新出现的Item可能暂时没有倒影
+ * <p>倒影画在Item的下方，只支持横向滚动，竖向滚动时不绘制倒影
+ * <p>所有实例共用一个后台线程。RecyclerView从窗口移除时释放缓存并停止监听Adapter，重新显示时再生成
+ * <p>Item内容异步加载（如网络图片）完成后，调用{@link #invalidateReflection(int)}重新生成倒影
+ */
+
+public class ReflectionDecoration extends RecyclerView.ItemDecoration {
+
+    /**
+     * 默认倒影高度与Item高度的比例
+     */
+    private static final float DEFAULT_REFLECTION_RATIO = 0.3f;
+
+    /**
+     * 默认倒影起始处的不透明度
+     */
+    private static final int DEFAULT_START_ALPHA = 0x66;
+
+    /**
+     * 每帧最多截取的Item数量，截取在主线程重新绘制Item，限制每帧增加的绘制时间
+     */
+    private static final int MAX_CAPTURES_PER_FRAME = 2;
+
+    /**
+     * 最多保留的截取位图数量，截取位图在生成倒影后复用
+     */
+    private static final int MAX_POOLED_SOURCES = MAX_CAPTURES_PER_FRAME;
+
+    /**
+     * Adapter结构变化的类型，见{@link #shiftKeys(int, int, int, int)}
+     */
+    private static final int SHIFT_INSERT = 0;
+    private static final int SHIFT_REMOVE = 1;
+    private static final int SHIFT_MOVE = 2;
+
+    /**
+     * 倒影位图缓存，按字节数限制大小
+     */
+    private final LruCache<Key, Bitmap> mCache;
+
+    /**
+     * 查找缓存和检查正在生成的倒影时复用的Key，只有开始生成时才创建新的Key
+     */
+    private final Key mLookupKey = new Key();
+
+    /**
+     * 正在生成的倒影，值与键是同一个对象，也是生成任务持有的Key
+     * <p>任务完成时只有Key仍然在这里才放入缓存：失效时移除对应的Key，位置变化时迁移Key，
+     * 不影响其他位置正在生成的倒影
+     */
+    private final Map<Key, Key> mPending = new HashMap<>();
+
+    /**
+     * 可复用的截取位图，只在主线程访问
+     */
+    private final List<Bitmap> mSourcePool = new ArrayList<>(MAX_POOLED_SOURCES);
+
+    private final Canvas mCaptureCanvas = new Canvas();
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private final Matrix mMatrix = new Matrix();
+
+    /**
+     * 倒影高度与Item高度的比例
+     */
+    private float mReflectionRatio = DEFAULT_REFLECTION_RATIO;
+
+    /**
+     * 倒影与Item之间的距离
+     */
+    private int mGap = 0;
+
+    /**
+     * 倒影起始处的不透明度
+     */
+    private int mStartAlpha = DEFAULT_START_ALPHA;
+
+    /**
+     * 滚动中有Item因为截取被推迟而没有倒影，停止滚动后需要重绘
+     */
+    private boolean mCaptureDeferred = false;
+
+    private RecyclerView mParent;
+
+    private RecyclerView.Adapter mAdapter;
+
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            //重新绘制时再监听Adapter并生成倒影
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            setAdapter(null);
+            invalidateAll();
+            clearSourcePool();
+        }
+    };
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            if (newState != RecyclerView.SCROLL_STATE_SETTLING && mCaptureDeferred) {
+                //补齐滚动中推迟截取的倒影
+                mCaptureDeferred = false;
+                recyclerView.invalidate();
+            }
+        }
+    };
+
+    private final RecyclerView.AdapterDataObserver mObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateAll();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidateRange(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            invalidateRange(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            shiftKeys(SHIFT_INSERT, positionStart, 0, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            shiftKeys(SHIFT_REMOVE, positionStart, 0, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            shiftKeys(SHIFT_MOVE, fromPosition, toPosition, itemCount);
+        }
+    };
+
+    /**
+     * 使用默认大小的缓存：最多使用1/16的可用内存
+     */
+    public ReflectionDecoration() {
+        this((int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param maxBytes 倒影缓存的最大字节数
+     */
+    public ReflectionDecoration(int maxBytes) {
+        mCache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * 设置倒影高度与Item高度的比例
+     */
+    public void setReflectionRatio(float ratio) {
+        if (ratio == mReflectionRatio) {
+            return;
+        }
+        mReflectionRatio = ratio;
+        invalidateAll();
+    }
+
+    public float getReflectionRatio() {
+        return mReflectionRatio;
+    }
+
+    /**
+     * 设置倒影与Item之间的距离
+     */
+    public void setGap(int gap) {
+        mGap = gap;
+        if (mParent != null) {
+            mParent.invalidate();
+        }
+    }
+
+    public int getGap() {
+        return mGap;
+    }
+
+    /**
+     * 设置倒影起始处的不透明度
+     *
+     * @param alpha [0, 255]
+     */
+    public void setStartAlpha(int alpha) {
+        if (alpha == mStartAlpha) {
+            return;
+        }
+        mStartAlpha = alpha;
+        invalidateAll();
+    }
+
+    public int getStartAlpha() {
+        return mStartAlpha;
+    }
+
+    /**
+     * Item内容变化后（如图片加载完成），重新生成该位置的倒影
+     *
+     * @param position Adapter位置
+     */
+    public void invalidateReflection(int position) {
+        invalidateRange(position, 1);
+    }
+
+    /**
+     * 清空所有倒影
+     */
+    public void invalidateAll() {
+        mCache.evictAll();
+        mPending.clear();
+        if (mParent != null) {
+            mParent.invalidate();
+        }
+    }
+
+    /**
+     * 不再使用时释放缓存，并停止监听Adapter和RecyclerView
+     */
+    public void release() {
+        setAdapter(null);
+        invalidateAll();
+        clearSourcePool();
+        setParent(null);
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        setParent(parent);
+        setAdapter(parent.getAdapter());
+        RecyclerView.LayoutManager layout = parent.getLayoutManager();
+        if (mAdapter == null || mReflectionRatio <= 0 || layout == null || layout.canScrollVertically()) {
+            //竖向滚动时倒影会盖住下一个Item
+            return;
+        }
+        CoverFlowLayoutManger coverFlow = layout instanceof CoverFlowLayoutManger
+                ? (CoverFlowLayoutManger) layout : null;
+        RecyclerCoverFlow ordered = parent instanceof RecyclerCoverFlow ? (RecyclerCoverFlow) parent : null;
+        //截取需要在主线程重新绘制Item，Fling和平滑滚动时推迟到停止后
+        int captures = parent.getScrollState() == RecyclerView.SCROLL_STATE_SETTLING
+                ? MAX_CAPTURES_PER_FRAME : 0;
+        boolean missed = false;
+        final int count = parent.getChildCount();
+        for (int i = 0; i < count; i++) {
+            //与Item相同的绘制顺序，重叠的倒影与上方的Item层叠一致
+            View child = parent.getChildAt(ordered != null ? ordered.getChildDrawingOrder(count, i) : i);
+            Bitmap reflection = findReflection(parent, child);
+            if (reflection == null) {
+                if (captures < MAX_CAPTURES_PER_FRAME) {
+                    captures += capture(parent, child) ? 1 : 0;
+                } else {
+                    missed = true;
+                }
+                continue;
+            }
+            drawReflection(c, coverFlow, child, reflection);
+        }
+        if (!missed) {
+            mCaptureDeferred = false;
+        } else if (parent.getScrollState() == RecyclerView.SCROLL_STATE_SETTLING) {
+            mCaptureDeferred = true;
+        } else {
+            //剩下的Item下一帧再截取
+            parent.postInvalidateOnAnimation();
+        }
+    }
+
+    /**
+     * 查找Item的倒影
+     * <p>倒影只由缓存持有，被LRU淘汰后不再被引用，占用的内存不会超过缓存大小
+     */
+    private Bitmap findReflection(RecyclerView parent, View child) {
+        RecyclerView.ViewHolder holder = parent.getChildViewHolder(child);
+        int position = holder.getAdapterPosition();
+        if (position == RecyclerView.NO_POSITION || child.getWidth() <= 0 || child.getHeight() <= 0) {
+            return null;
+        }
+        mLookupKey.set(position, holder.getItemId());
+        Bitmap reflection = mCache.get(mLookupKey);
+        if (reflection != null && (reflection.getWidth() != child.getWidth()
+                || reflection.getHeight() != getReflectionHeight(child))) {
+            //Item大小变化，重新生成
+            mCache.remove(mLookupKey);
+            reflection = null;
+        }
+        return reflection;
+    }
+
+    /**
+     * 按Item当前的变换绘制倒影
+     */
+    private void drawReflection(Canvas c, CoverFlowLayoutManger coverFlow, View child, Bitmap reflection) {
+        Matrix drawMatrix = coverFlow != null ? coverFlow.getChildDrawMatrix(child) : null;
+        Paint effectPaint = coverFlow != null ? coverFlow.getItemEffectPaint(child) : null;
+        int saveCount = c.save();
+        if (drawMatrix != null) {
+            //绘制时变换模式，矩阵已经是父控件坐标
+            c.concat(drawMatrix);
+        } else if (!child.getMatrix().isIdentity()) {
+            mMatrix.set(child.getMatrix());
+            mMatrix.preTranslate(-child.getLeft(), -child.getTop());
+            mMatrix.postTranslate(child.getLeft(), child.getTop());
+            c.concat(mMatrix);
+        }
+        Paint paint = effectPaint;
+        if (paint == null) {
+            paint = mPaint;
+            paint.setAlpha(Math.round(child.getAlpha() * 255));
+        }
+        c.drawBitmap(reflection, child.getLeft(), child.getBottom() + mGap, paint);
+        c.restoreToCount(saveCount);
+    }
+
+    /**
+     * 在主线程截取Item底部需要的部分，翻转和遮罩交给后台线程
+     *
+     * @return 是否开始生成
+     */
+    private boolean capture(RecyclerView parent, View child) {
+        RecyclerView.ViewHolder holder = parent.getChildViewHolder(child);
+        int position = holder.getAdapterPosition();
+        int width = child.getWidth();
+        int height = getReflectionHeight(child);
+        if (position == RecyclerView.NO_POSITION || width <= 0 || height <= 0
+                || child.isLayoutRequested()) {
+            return false;
+        }
+        mLookupKey.set(position, holder.getItemId());
+        if (mPending.containsKey(mLookupKey)) {
+            return false;
+        }
+        final Key key = new Key();
+        key.set(position, holder.getItemId());
+        mPending.put(key, key);
+        final Bitmap source = obtainSource(width, height);
+        mCaptureCanvas.setBitmap(source);
+        int saveCount = mCaptureCanvas.save();
+        mCaptureCanvas.translate(0, height - child.getHeight());
+        child.draw(mCaptureCanvas);
+        mCaptureCanvas.restoreToCount(saveCount);
+        mCaptureCanvas.setBitmap(null);
+
+        final int startAlpha = mStartAlpha;
+        Worker.EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap reflection = createReflection(source, startAlpha);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        recycleSource(source);
+                        onReflectionCreated(key, reflection);
+                    }
+                });
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 获取截取位图，优先复用已经生成完倒影的截取位图，Item大小相同时不需要分配
+     */
+    private Bitmap obtainSource(int width, int height) {
+        final int bytes = width * height * 4;
+        for (int i = mSourcePool.size() - 1; i >= 0; i--) {
+            Bitmap source = mSourcePool.get(i);
+            if (source.getAllocationByteCount() < bytes) {
+                continue;
+            }
+            mSourcePool.remove(i);
+            if (source.getWidth() != width || source.getHeight() != height) {
+                source.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+            }
+            source.eraseColor(Color.TRANSPARENT);
+            return source;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private void recycleSource(Bitmap source) {
+        if (mSourcePool.size() < MAX_POOLED_SOURCES) {
+            mSourcePool.add(source);
+        } else {
+            source.recycle();
+        }
+    }
+
+    private void clearSourcePool() {
+        for (Bitmap source : mSourcePool) {
+            source.recycle();
+        }
+        mSourcePool.clear();
+    }
+
+    /**
+     * 后台线程：翻转截取的位图，并用渐变遮罩由上到下淡出
+     */
+    private static Bitmap createReflection(Bitmap source, int startAlpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        Bitmap reflection = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(reflection);
+        canvas.save();
+        canvas.scale(1, -1, 0, height / 2f);
+        canvas.drawBitmap(source, 0, 0, null);
+        canvas.restore();
+        Paint mask = new Paint();
+        mask.setShader(new LinearGradient(0, 0, 0, height,
+                startAlpha << 24, 0, Shader.TileMode.CLAMP));
+        mask.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+        canvas.drawRect(0, 0, width, height, mask);
+        return reflection;
+    }
+
+    /**
+     * 主线程：放入缓存并重绘
+     */
+    private void onReflectionCreated(Key key, Bitmap reflection) {
+        if (mPending.get(key) != key) {
+            //生成过程中内容已经失效
+            reflection.recycle();
+            return;
+        }
+        mPending.remove(key);
+        mCache.put(key, reflection);
+        if (mParent != null) {
+            mParent.invalidate();
+        }
+    }
+
+    private void invalidateRange(int positionStart, int itemCount) {
+        for (Key key : mCache.snapshot().keySet()) {
+            if (key.position >= positionStart && key.position < positionStart + itemCount) {
+                mCache.remove(key);
+            }
+        }
+        //范围内正在生成的倒影也已经失效，范围外的不受影响
+        Iterator<Key> pending = mPending.keySet().iterator();
+        while (pending.hasNext()) {
+            Key key = pending.next();
+            if (key.position >= positionStart && key.position < positionStart + itemCount) {
+                pending.remove();
+            }
+        }
+        if (mParent != null) {
+            mParent.invalidate();
+        }
+    }
+
+    /**
+     * Item插入、移除或移动后，把缓存迁移到新的位置，被移除Item的倒影直接丢弃
+     * <p>没有stable id时缓存只按位置区分，不迁移的话位置变化的Item会画出原来Item的倒影
+     */
+    private void shiftKeys(int type, int positionStart, int toPosition, int itemCount) {
+        //快照按最近最少使用到最近使用排列，按顺序放回保持淘汰顺序
+        Map<Key, Bitmap> snapshot = mCache.snapshot();
+        mCache.evictAll();
+        for (Map.Entry<Key, Bitmap> entry : snapshot.entrySet()) {
+            Key key = entry.getKey();
+            int position = shiftPosition(key.position, type, positionStart, toPosition, itemCount);
+            if (position != PositionShift.REMOVED) {
+                key.position = position;
+                mCache.put(key, entry.getValue());
+            }
+        }
+        //正在生成的倒影同样迁移，生成任务持有同一个Key，完成后放入新的位置
+        List<Key> pending = new ArrayList<>(mPending.keySet());
+        mPending.clear();
+        for (Key key : pending) {
+            int position = shiftPosition(key.position, type, positionStart, toPosition, itemCount);
+            if (position != PositionShift.REMOVED) {
+                key.position = position;
+                mPending.put(key, key);
+            }
+        }
+        if (mParent != null) {
+            mParent.invalidate();
+        }
+    }
+
+    private static int shiftPosition(int position, int type, int positionStart, int toPosition, int itemCount) {
+        switch (type) {
+            case SHIFT_INSERT:
+                return PositionShift.afterInsert(position, positionStart, itemCount);
+            case SHIFT_REMOVE:
+                return PositionShift.afterRemove(position, positionStart, itemCount);
+            default:
+                return PositionShift.afterMove(position, positionStart, toPosition, itemCount);
+        }
+    }
+
+    /**
+     * 倒影位图的高度
+     */
+    private int getReflectionHeight(View child) {
+        return Math.round(child.getHeight() * mReflectionRatio);
+    }
+
+    private void setParent(RecyclerView parent) {
+        if (parent == mParent) {
+            return;
+        }
+        if (mParent != null) {
+            mParent.removeOnAttachStateChangeListener(mAttachListener);
+            mParent.removeOnScrollListener(mScrollListener);
+        }
+        mParent = parent;
+        if (parent != null) {
+            parent.addOnAttachStateChangeListener(mAttachListener);
+            parent.addOnScrollListener(mScrollListener);
+        }
+    }
+
+    private void setAdapter(RecyclerView.Adapter adapter) {
+        if (adapter == mAdapter) {
+            return;
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterAdapterDataObserver(mObserver);
+            invalidateAll();
+        }
+        mAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(mObserver);
+        }
+    }
+
+    /**
+     * 所有实例共用的后台线程，第一次生成倒影时创建
+     */
+    private static class Worker {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull final Runnable r) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "CoverFlowReflection");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * 缓存的Key：Adapter位置和Item的stable id，没有stable id时为{@link RecyclerView#NO_ID}
+     */
+    private static class Key {
+        int position;
+        long id;
+
+        void set(int position, long id) {
+            this.position = position;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return position == key.position && id == key.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * position + (int) (id ^ (id >>> 32));
+        }
+    }
+}
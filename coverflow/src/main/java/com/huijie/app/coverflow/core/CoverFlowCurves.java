@@ -0,0 +1,103 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * Cover Flow默认的缩放、旋转、半透和灰度曲线
+ * <p>只依赖测量结果，由{@link TransformCurve}在测量完成后采样
+ */
+
+public class CoverFlowCurves {
+
+    /**
+     * 最大Y轴旋转度数
+     */
+    public static final float MAX_ROTATION_Y = 30.0f;
+
+    private CoverFlowCurves() {
+    }
+
+    /**
+     * 计算Item缩放系数
+     *
+     * @param x             Item的偏移量
+     * @param startX        起始ItemX坐标
+     * @param itemWidth     Item宽
+     * @param intervalRatio Item间隔与item宽的比例
+     * @return 缩放系数
+     */
+    public static float computeScale(float x, int startX, int itemWidth, float intervalRatio) {
+        float scale = 1 - Math.abs(x - startX) * 1.0f / Math.abs(startX + itemWidth / intervalRatio);
+        if (scale < 0) {
+            scale = 0;
+        }
+        if (scale > 1) {
+            scale = 1;
+        }
+        return scale;
+    }
+
+    /**
+     * 计算Item的Y轴旋转角度
+     *
+     * @param x         Item的偏移量
+     * @param itemWidth Item宽
+     * @return 旋转角度
+     */
+    public static float computeRotationY(float x, int itemWidth) {
+        if (itemWidth / 2 == 0) {
+            return 0;
+        }
+        float rotationY = -MAX_ROTATION_Y * x / (itemWidth / 2);
+        if (Math.abs(rotationY) > MAX_ROTATION_Y) {
+            if (rotationY > 0) {
+                rotationY = MAX_ROTATION_Y;
+            } else {
+                rotationY = -MAX_ROTATION_Y;
+            }
+        }
+        return rotationY;
+    }
+
+    /**
+     * 计算Item的灰度值
+     *
+     * @param x         Item的偏移量
+     * @param itemWidth Item宽
+     * @param space     控件可用空间
+     * @return 灰度系数
+     */
+    public static float computeGreyScale(float x, int itemWidth, int space) {
+        //item中点x坐标
+        float itemMidPos = x + itemWidth / 2;
+        //item中点距离控件中点距离
+        float itemDx2Mid = Math.abs(itemMidPos - space / 2);
+        float value = 1 - itemDx2Mid * 1.0f / (space / 2);
+        if (value < 0.1) {
+            value = 0.1f;
+        }
+        if (value > 1) {
+            value = 1;
+        }
+        value = (float) Math.pow(value, .8);
+        return value;
+    }
+
+    /**
+     * 计算Item半透值
+     *
+     * @param x             Item的偏移量
+     * @param startX        起始ItemX坐标
+     * @param itemWidth     Item宽
+     * @param intervalRatio Item间隔与item宽的比例
+     * @return 半透值
+     */
+    public static float computeAlpha(float x, int startX, int itemWidth, float intervalRatio) {
+        float alpha = 1 - Math.abs(x - startX) * 1.0f / Math.abs(startX + itemWidth / intervalRatio);
+        if (alpha < 0.3f) {
+            alpha = 0.3f;
+        }
+        if (alpha > 1) {
+            alpha = 1.0f;
+        }
+        return alpha;
+    }
+}
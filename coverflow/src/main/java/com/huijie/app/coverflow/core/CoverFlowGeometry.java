@@ -0,0 +1,394 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * Cover Flow的Item位置计算
+ * <p>不需要缓存每个Item的Rect，所有位置信息都通过公式直接计算，不产生任何对象分配
+ * <p>所有计算都在滚动方向（主轴）和另一个方向上进行，与横向、竖向无关
+ * <p>相邻两个Item中心的距离为两者大小平均值乘以间隔比例，Item大小不同时通过{@link ItemSizeIndex}
+ * 计算大小前缀和，位置与偏移量的相互转换都是O(log n)
+ * <p>循环模式下位置为虚拟位置，可以超出[0, count)，对应的Item为虚拟位置对Item总数取模，
+ * 虚拟位置每增加count，偏移量增加{@link #getLoopOffset()}
+ * <p>偏移量在double中计算，最后只四舍五入一次。float超过2^24后不能精确表示每个整数，
+ * Item很多或者循环滚动很远时会出现整像素的误差
+ */
+
+public class CoverFlowGeometry {
+
+    /**
+     * 每个位置的Item大小
+     */
+    private final ItemSizeIndex mSizes = new ItemSizeIndex();
+
+    /**
+     * 可见区域在滚动方向上的大小
+     */
+    private int mSpace = 0;
+
+    /**
+     * 可见区域在另一个方向上的大小
+     */
+    private int mSpaceInOther = 0;
+
+    /**
+     * Item间隔比例
+     */
+    private float mIntervalRatio = 0;
+
+    /**
+     * 是否循环
+     */
+    private boolean mLooping = false;
+
+    /**
+     * 更新测量结果
+     *
+     * @param space           可见区域在滚动方向上的大小
+     * @param spaceInOther    可见区域在另一个方向上的大小
+     * @param itemSize        默认Item在滚动方向上的大小
+     * @param itemSizeInOther 默认Item在另一个方向上的大小
+     * @param intervalRatio   Item间隔比例
+     * @param itemCount       Item总数
+     */
+    public void set(int space, int spaceInOther, int itemSize, int itemSizeInOther,
+                    float intervalRatio, int itemCount) {
+        mSpace = space;
+        mSpaceInOther = spaceInOther;
+        mIntervalRatio = intervalRatio;
+        mSizes.setDefaultSize(itemSize, itemSizeInOther);
+        mSizes.setCount(itemCount);
+    }
+
+    public void setLooping(boolean looping) {
+        mLooping = looping;
+    }
+
+    public boolean isLooping() {
+        return mLooping;
+    }
+
+    /**
+     * 虚拟位置对应的Item位置
+     */
+    public int toAdapterPosition(int position) {
+        int count = mSizes.getCount();
+        if (!mLooping || count <= 0) {
+            return position;
+        }
+        int result = position % count;
+        return result < 0 ? result + count : result;
+    }
+
+    /**
+     * 循环一周的偏移量，为所有Item间隔之和
+     */
+    public int getLoopOffset() {
+        return (int) Math.round(getLinearOffset(mSizes.getCount()));
+    }
+
+    public ItemSizeIndex getSizeIndex() {
+        return mSizes;
+    }
+
+    /**
+     * 记录Item测量得到的大小
+     *
+     * @return Item在滚动方向上的大小是否发生了变化
+     */
+    public boolean setItemSize(int position, int size, int sizeInOther) {
+        return mSizes.setSize(position, size, sizeInOther);
+    }
+
+    /**
+     * Item在滚动方向上的大小
+     */
+    public int getItemSize(int position) {
+        return mSizes.getSize(toAdapterPosition(position));
+    }
+
+    /**
+     * Item在另一个方向上的大小
+     */
+    public int getItemSizeInOther(int position) {
+        return mSizes.getSizeInOther(toAdapterPosition(position));
+    }
+
+    /**
+     * 默认大小Item的间隔
+     */
+    public float getInterval() {
+        return mSizes.getDefaultSize() * mIntervalRatio;
+    }
+
+    /**
+     * Item居中时，Item起始边界在可见区域中的位置
+     */
+    public int getCenterStart(int position) {
+        return Math.round((mSpace - getItemSize(position)) * 1.0f / 2);
+    }
+
+    /**
+     * Item在滚动方向上的起始边界位置，由居中时的偏移量直接计算，不会累积误差
+     */
+    public int getFrameStart(int position) {
+        return getCenterStart(position) + getOffsetForPosition(position);
+    }
+
+    /**
+     * Item在滚动方向上的结束边界位置
+     */
+    public int getFrameEnd(int position) {
+        return getFrameStart(position) + getItemSize(position);
+    }
+
+    /**
+     * Item在另一个方向上的起始边界位置，居中显示
+     */
+    public int getFrameStartInOther(int position) {
+        return Math.round((mSpaceInOther - getItemSizeInOther(position)) * 1.0f / 2);
+    }
+
+    /**
+     * Item在另一个方向上的结束边界位置
+     */
+    public int getFrameEndInOther(int position) {
+        return getFrameStartInOther(position) + getItemSizeInOther(position);
+    }
+
+    /**
+     * 第一个与可见区域[offset, offset + space)相交的Item位置
+     *
+     * @param offset    滑动总偏移量
+     * @param space     可见区域大小
+     * @param itemCount Item总数
+     */
+    public int getFirstVisiblePosition(int offset, int space, int itemCount) {
+        if (itemCount <= 0) {
+            return 0;
+        }
+        int pos = findPosition(offset - (space + mSizes.getDefaultSize()) / 2.0, itemCount);
+        //修正四舍五入以及Item大小不同带来的误差
+        while ((mLooping || pos > 0) && getFrameEnd(pos - 1) > offset) {
+            pos--;
+        }
+        while ((mLooping || pos < itemCount - 1) && getFrameEnd(pos) <= offset) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 最后一个与可见区域[offset, offset + space)相交的Item位置
+     *
+     * @param offset    滑动总偏移量
+     * @param space     可见区域大小
+     * @param itemCount Item总数
+     */
+    public int getLastVisiblePosition(int offset, int space, int itemCount) {
+        if (itemCount <= 0) {
+            return -1;
+        }
+        int displayEnd = offset + space;
+        int pos = findPosition(displayEnd - (space - mSizes.getDefaultSize()) / 2.0, itemCount);
+        //修正四舍五入以及Item大小不同带来的误差
+        while ((mLooping || pos > 0) && getFrameStart(pos) >= displayEnd) {
+            pos--;
+        }
+        while ((mLooping || pos < itemCount - 1) && getFrameStart(pos + 1) < displayEnd) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 偏移量对应的居中Item位置
+     */
+    public int getCenterPosition(int offset) {
+        if (mSizes.isUniform() && !mLooping) {
+            double interval = getExactInterval();
+            int pos = (int) (offset / interval);
+            int more = (int) (offset % interval);
+            if (more > interval * 0.5) {
+                pos++;
+            }
+            return pos;
+        }
+        int count = mSizes.getCount();
+        int pos = findPosition(offset, count);
+        if (mLooping || pos < count - 1) {
+            double start = getExactOffset(pos);
+            double end = getExactOffset(pos + 1);
+            if (offset - start > (end - start) * 0.5) {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Item居中时的偏移量
+     */
+    public int getOffsetForPosition(int position) {
+        return (int) Math.round(getExactOffset(position));
+    }
+
+    /**
+     * 偏移量不超过offset的最后一个居中位置
+     */
+    public int getFloorPosition(int offset) {
+        return findPosition(offset, mSizes.getCount());
+    }
+
+    /**
+     * 循环模式下与居中位置center最近的、对应Item位置position的虚拟位置
+     *
+     * @param position  Item位置
+     * @param center    居中的虚拟位置
+     * @param itemCount Item总数
+     */
+    public int getNearestPosition(int position, int center, int itemCount) {
+        if (!mLooping || itemCount <= 0) {
+            return position;
+        }
+        int delta = toAdapterPosition(position - center);
+        if (delta > itemCount / 2) {
+            delta -= itemCount;
+        }
+        return center + delta;
+    }
+
+    /**
+     * Fling结束后应该停留在中间的Item位置
+     * <p>至少沿Fling方向滚动一个Item，循环模式下最多滚动半周
+     *
+     * @param offset    滑动总偏移量
+     * @param distance  Fling的距离
+     * @param velocity  Fling的速度
+     * @param itemCount Item总数
+     * @return 范围[0, itemCount - 1]内的Item位置
+     */
+    public int getSnapPosition(int offset, int distance, int velocity, int itemCount) {
+        if (itemCount <= 0) {
+            return 0;
+        }
+        int target = getCenterPosition(offset + distance);
+        int floor = getFloorPosition(offset);
+        int ceil = getOffsetForPosition(floor) < offset ? floor + 1 : floor;
+        if (velocity > 0) {
+            target = Math.max(target, floor + 1);
+        } else if (velocity < 0) {
+            target = Math.min(target, ceil - 1);
+        }
+        if (mLooping) {
+            //保证按最短方向滚动到目标位置与Fling方向一致
+            int center = getCenterPosition(offset);
+            int maxDelta = Math.max(1, (itemCount - 1) / 2);
+            target = Math.max(center - maxDelta, Math.min(target, center + maxDelta));
+            return toAdapterPosition(target);
+        }
+        return clamp(target, itemCount);
+    }
+
+    /**
+     * 计算子View的绘制顺序，中间的Item最后绘制，两边的Item由外向内绘制
+     *
+     * @param order  绘制顺序，order[i]为第i个绘制的子View下标
+     * @param count  子View数量
+     * @param center 居中Item的子View下标
+     */
+    public static void computeDrawingOrder(int[] order, int count, int center) {
+        if (center < 0) {
+            center = 0;
+        } else if (center > count) {
+            center = count;
+        }
+        for (int i = 0; i < count; i++) {
+            if (i == center) {
+                order[i] = count - 1;
+            } else if (i > center) {
+                order[i] = center + count - 1 - i;
+            } else {
+                order[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Item居中时的偏移量，循环模式下按周期展开
+     */
+    private double getExactOffset(int position) {
+        int count = mSizes.getCount();
+        if (!mLooping || count <= 0) {
+            return getLinearOffset(position);
+        }
+        int loop = position >= 0 ? position / count : -((count - 1 - position) / count);
+        return (double) loop * getLoopOffset() + getLinearOffset(position - loop * count);
+    }
+
+    /**
+     * 不循环时Item居中的偏移量
+     * <p>P(i) = ratio * (S(i) + (s(i) - s(0)) / 2)，其中S(i)为前i个Item的大小之和
+     */
+    private double getLinearOffset(int position) {
+        if (mSizes.isUniform()) {
+            return getExactInterval() * position;
+        }
+        long prefix = mSizes.getPrefixSize(position);
+        int size = position < mSizes.getCount() ? mSizes.getSize(position) : mSizes.getSize(0);
+        return mIntervalRatio * (prefix + (size - mSizes.getSize(0)) / 2.0);
+    }
+
+    /**
+     * double精度的{@link #getInterval()}
+     */
+    private double getExactInterval() {
+        return (double) mSizes.getDefaultSize() * mIntervalRatio;
+    }
+
+    /**
+     * 查找居中偏移量不超过offset的最后一个位置
+     */
+    private int findPosition(double offset, int itemCount) {
+        int loopOffset = mLooping ? getLoopOffset() : 0;
+        if (loopOffset > 0 && itemCount > 0) {
+            //先确定在第几个周期，再在周期内查找
+            int loop = (int) Math.floor(offset / loopOffset);
+            int pos = loop * itemCount
+                    + findLinearPosition(offset - (double) loop * loopOffset, itemCount);
+            while (getExactOffset(pos) > offset) {
+                pos--;
+            }
+            while (getExactOffset(pos + 1) <= offset) {
+                pos++;
+            }
+            return pos;
+        }
+        return findLinearPosition(offset, itemCount);
+    }
+
+    /**
+     * 不循环时查找居中偏移量不超过offset的最后一个位置
+     */
+    private int findLinearPosition(double offset, int itemCount) {
+        int pos;
+        if (mIntervalRatio <= 0) {
+            pos = 0;
+        } else if (mSizes.isUniform()) {
+            pos = (int) Math.floor(offset / getExactInterval());
+        } else {
+            //先根据大小前缀和估算，再逐个修正
+            pos = mSizes.findPosition((long) Math.floor(offset / mIntervalRatio));
+        }
+        pos = clamp(pos, itemCount);
+        while (pos > 0 && getLinearOffset(pos) > offset) {
+            pos--;
+        }
+        while (pos < itemCount - 1 && getLinearOffset(pos + 1) <= offset) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int clamp(int pos, int itemCount) {
+        return Math.max(0, Math.min(pos, itemCount - 1));
+    }
+}
@@ -0,0 +1,351 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * Item大小索引
+ * <p>记录每个位置测量得到的Item大小，Item在滚动方向上大小的前缀和通过树状数组（Fenwick Tree）维护，
+ * 单个Item大小变化、前缀和查询以及根据前缀和查找位置都是O(log n)
+ * <p>树状数组中只保存与默认大小的差值，在所有Item大小相同时不分配任何数组，前缀和直接计算
+ * <p>出现不同大小的Item后每个Item占用16字节（两个int大小和一个long树节点），1000万个Item约160MB。
+ * 数组按容量分配，插入、移除和移动在数组内完成，容量不足时按1.5倍扩容，Item总数降到容量的1/4以下时缩容；
+ * 树状数组只重建变化位置之后的部分
+ */
+
+public class ItemSizeIndex {
+
+    /**
+     * Item总数
+     */
+    private int mCount = 0;
+
+    /**
+     * 默认Item在滚动方向上的大小，未测量的Item使用默认大小
+     */
+    private int mDefaultSize = 0;
+
+    /**
+     * 默认Item在另一个方向上的大小
+     */
+    private int mDefaultSizeInOther = 0;
+
+    /**
+     * 每个位置的Item在滚动方向上的大小，0表示未测量；长度为容量，[mCount, 容量)保持为0
+     */
+    private int[] mSizes;
+
+    /**
+     * 每个位置的Item在另一个方向上的大小，0表示未测量
+     */
+    private int[] mSizesInOther;
+
+    /**
+     * 树状数组，下标从1开始，保存Item大小与默认大小的差值，只有[1, mCount]有效
+     */
+    private long[] mTree;
+
+    /**
+     * 设置Item总数，已测量位置的大小会保留
+     */
+    public void setCount(int count) {
+        if (count == mCount) {
+            return;
+        }
+        if (mSizes == null) {
+            mCount = count;
+            return;
+        }
+        int from = Math.min(count, mCount);
+        if (count > mCount) {
+            ensureCapacity(count);
+        } else {
+            clearRange(count, mCount);
+        }
+        mCount = count;
+        trimCapacity();
+        rebuild(from);
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 设置默认Item大小
+     *
+     * @param size        滚动方向上的大小
+     * @param sizeInOther 另一个方向上的大小
+     */
+    public void setDefaultSize(int size, int sizeInOther) {
+        if (size == mDefaultSize && sizeInOther == mDefaultSizeInOther) {
+            return;
+        }
+        mDefaultSize = size;
+        mDefaultSizeInOther = sizeInOther;
+        if (mSizes != null) {
+            rebuild(0);
+        }
+    }
+
+    public int getDefaultSize() {
+        return mDefaultSize;
+    }
+
+    public int getDefaultSizeInOther() {
+        return mDefaultSizeInOther;
+    }
+
+    /**
+     * 清空所有测量结果
+     */
+    public void clear() {
+        mSizes = null;
+        mSizesInOther = null;
+        mTree = null;
+    }
+
+    /**
+     * 是否所有Item都是默认大小
+     */
+    public boolean isUniform() {
+        return mSizes == null;
+    }
+
+    /**
+     * 记录Item测量得到的大小
+     *
+     * @param position    Item位置
+     * @param size        滚动方向上的大小
+     * @param sizeInOther 另一个方向上的大小
+     * @return 滚动方向上的大小是否发生了变化，会影响后面所有Item的位置
+     */
+    public boolean setSize(int position, int size, int sizeInOther) {
+        if (position < 0 || position >= mCount) {
+            return false;
+        }
+        if (mSizes == null) {
+            if (size == mDefaultSize && sizeInOther == mDefaultSizeInOther) {
+                return false;
+            }
+            //第一次出现不同大小的Item时才分配
+            mSizes = new int[mCount];
+            mSizesInOther = new int[mCount];
+            mTree = new long[mCount + 1];
+        }
+        mSizesInOther[position] = sizeInOther;
+        int oldSize = getSize(position);
+        mSizes[position] = size;
+        if (oldSize == size) {
+            return false;
+        }
+        for (int i = position + 1; i <= mCount; i += i & -i) {
+            mTree[i] += size - oldSize;
+        }
+        return true;
+    }
+
+    /**
+     * Item在滚动方向上的大小
+     */
+    public int getSize(int position) {
+        if (mSizes == null || position < 0 || position >= mCount || mSizes[position] == 0) {
+            return mDefaultSize;
+        }
+        return mSizes[position];
+    }
+
+    /**
+     * Item在另一个方向上的大小
+     */
+    public int getSizeInOther(int position) {
+        if (mSizesInOther == null || position < 0 || position >= mCount || mSizesInOther[position] == 0) {
+            return mDefaultSizeInOther;
+        }
+        return mSizesInOther[position];
+    }
+
+    /**
+     * 位置[0, position)所有Item在滚动方向上的大小之和
+     */
+    public long getPrefixSize(int position) {
+        long sum = (long) position * mDefaultSize;
+        if (mTree == null) {
+            return sum;
+        }
+        for (int i = Math.min(position, mCount); i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 查找满足{@link #getPrefixSize(int)} <= prefix的最大位置
+     *
+     * @return 范围[0, count - 1]内的位置
+     */
+    public int findPosition(long prefix) {
+        if (mCount <= 0 || prefix <= 0) {
+            return 0;
+        }
+        int pos;
+        if (mTree == null) {
+            pos = mDefaultSize <= 0 ? mCount : (int) Math.min(prefix / mDefaultSize, mCount);
+        } else {
+            //在树状数组上二分，每个节点的实际大小之和为差值加上默认大小
+            pos = 0;
+            long rest = prefix;
+            for (int step = Integer.highestOneBit(mCount); step > 0; step >>= 1) {
+                int next = pos + step;
+                if (next <= mCount) {
+                    long size = mTree[next] + (long) step * mDefaultSize;
+                    if (size <= rest) {
+                        pos = next;
+                        rest -= size;
+                    }
+                }
+            }
+        }
+        return Math.min(pos, mCount - 1);
+    }
+
+    /**
+     * 在position处插入count个未测量的Item，后面Item的测量结果依次后移，O(n - position)
+     */
+    public void insert(int position, int count) {
+        if (mSizes == null || count <= 0) {
+            mCount += Math.max(0, count);
+            return;
+        }
+        position = Math.max(0, Math.min(position, mCount));
+        ensureCapacity(mCount + count);
+        System.arraycopy(mSizes, position, mSizes, position + count, mCount - position);
+        System.arraycopy(mSizesInOther, position, mSizesInOther, position + count, mCount - position);
+        mCount += count;
+        clearRange(position, position + count);
+        rebuild(position);
+    }
+
+    /**
+     * 移除[position, position + count)的Item，后面Item的测量结果依次前移，O(n - position)
+     */
+    public void remove(int position, int count) {
+        count = Math.min(count, mCount - position);
+        if (count <= 0) {
+            return;
+        }
+        if (mSizes == null) {
+            mCount -= count;
+            return;
+        }
+        System.arraycopy(mSizes, position + count, mSizes, position, mCount - position - count);
+        System.arraycopy(mSizesInOther, position + count, mSizesInOther, position, mCount - position - count);
+        clearRange(mCount - count, mCount);
+        mCount -= count;
+        trimCapacity();
+        rebuild(position);
+    }
+
+    /**
+     * 把[from, from + count)的Item移动到to，to为移动后第一个Item的位置，
+     * 只翻转[min(from, to), max(from, to) + count)范围内的测量结果，不分配内存
+     */
+    public void move(int from, int to, int count) {
+        if (mSizes == null || from == to || count <= 0 || from < 0 || to < 0
+                || from + count > mCount || to + count > mCount) {
+            return;
+        }
+        int start = Math.min(from, to);
+        int end = Math.max(from, to) + count;
+        //向前移动时[start, end)循环左移count，向后移动时循环左移from - to
+        int shift = from < to ? count : from - to;
+        rotate(mSizes, start, end, shift);
+        rotate(mSizesInOther, start, end, shift);
+        rebuild(start);
+    }
+
+    /**
+     * 根据测量结果重建树状数组中[from + 1, mCount]的节点，前from个Item的节点不变，O(n - from)
+     */
+    private void rebuild(int from) {
+        if (mTree == null || mTree.length < mCount + 1) {
+            mTree = new long[mSizes.length + 1];
+            from = 0;
+        }
+        for (int i = from + 1; i <= mCount; i++) {
+            mTree[i] = 0;
+        }
+        //from之前的节点已经完整，范围超过from的父节点需要先加上它们
+        for (int i = from; i > 0; i -= i & -i) {
+            int parent = i + (i & -i);
+            if (parent <= mCount) {
+                mTree[parent] += mTree[i];
+            }
+        }
+        for (int i = from + 1; i <= mCount; i++) {
+            mTree[i] += getSize(i - 1) - mDefaultSize;
+            int parent = i + (i & -i);
+            if (parent <= mCount) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    /**
+     * 保证数组容量不小于count，按1.5倍扩容
+     */
+    private void ensureCapacity(int count) {
+        if (mSizes.length >= count) {
+            return;
+        }
+        long capacity = Math.max(count, (long) mSizes.length + (mSizes.length >> 1));
+        resize((int) Math.min(capacity, Integer.MAX_VALUE - 1));
+    }
+
+    /**
+     * Item总数降到容量的1/4以下时缩容到Item总数的1.5倍
+     */
+    private void trimCapacity() {
+        if (mCount < mSizes.length / 4) {
+            resize(mCount + (mCount >> 1));
+        }
+    }
+
+    private void resize(int capacity) {
+        mSizes = copyOf(mSizes, capacity);
+        mSizesInOther = copyOf(mSizesInOther, capacity);
+        long[] tree = new long[capacity + 1];
+        System.arraycopy(mTree, 0, tree, 0, Math.min(mTree.length, mCount + 1));
+        mTree = tree;
+    }
+
+    /**
+     * 把[start, end)的测量结果清为未测量
+     */
+    private void clearRange(int start, int end) {
+        for (int i = start; i < end; i++) {
+            mSizes[i] = 0;
+            mSizesInOther[i] = 0;
+        }
+    }
+
+    /**
+     * 把[start, end)循环左移shift，三次翻转完成
+     */
+    private static void rotate(int[] array, int start, int end, int shift) {
+        reverse(array, start, start + shift);
+        reverse(array, start + shift, end);
+        reverse(array, start, end);
+    }
+
+    private static void reverse(int[] array, int start, int end) {
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] result = new int[length];
+        System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * {@code ViewPagerLayoutManager}的位置计算
+ * <p>只依赖偏移量、Item间隔和Item总数，不依赖Android
+ */
+
+public final class PagerPositions {
+
+    private PagerPositions() {
+    }
+
+    /**
+     * 布局位置转换为Adapter中的位置，循环模式下布局位置可能超出[0, itemCount)
+     */
+    public static int toAdapterPosition(int layoutPosition, int itemCount) {
+        int adapterPosition = layoutPosition;
+        if (layoutPosition >= itemCount) {
+            adapterPosition %= itemCount;
+        } else if (layoutPosition < 0) {
+            int delta = (-adapterPosition) % itemCount;
+            if (delta == 0) {
+                delta = itemCount;
+            }
+            adapterPosition = itemCount - delta;
+        }
+        return adapterPosition;
+    }
+
+    /**
+     * @return 离偏移量最近的布局位置，反向布局时为负数
+     */
+    public static int getCurrentPositionOffset(float offset, float interval) {
+        if (interval == 0) {
+            return 0;
+        }
+        return Math.round(offset / interval);
+    }
+
+    /**
+     * @param positionOffset {@link #getCurrentPositionOffset(float, float)}的结果
+     * @return 当前Item在Adapter中的位置
+     */
+    public static int getCurrentPosition(int positionOffset, int itemCount,
+                                         boolean infinite, boolean reverseLayout) {
+        if (itemCount == 0) {
+            return 0;
+        }
+
+        int position = positionOffset;
+        if (!infinite) {
+            return Math.abs(position);
+        }
+
+        position = !reverseLayout ?
+                //position等于itemCount时取0
+                (position >= 0 ?
+                        position % itemCount :
+                        itemCount + position % itemCount) :
+                (position > 0 ?
+                        itemCount - position % itemCount :
+                        -position % itemCount);
+        return position == itemCount ? 0 : position;
+    }
+}
@@ -0,0 +1,60 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * Adapter结构变化后的位置换算
+ * <p>与Adapter的notifyItemRangeInserted、notifyItemRangeRemoved和notifyItemMoved对应，
+ * 计算变化前的位置在变化后的位置，用于迁移按位置保存的缓存
+ */
+
+public final class PositionShift {
+
+    /**
+     * 位置对应的Item已经被移除
+     */
+    public static final int REMOVED = -1;
+
+    private PositionShift() {
+    }
+
+    /**
+     * @param position      插入前的位置
+     * @param positionStart 插入的起始位置
+     * @param itemCount     插入的Item数量
+     * @return 插入后的位置
+     */
+    public static int afterInsert(int position, int positionStart, int itemCount) {
+        return position >= positionStart ? position + itemCount : position;
+    }
+
+    /**
+     * @param position      移除前的位置
+     * @param positionStart 移除的起始位置
+     * @param itemCount     移除的Item数量
+     * @return 移除后的位置，Item被移除时返回{@link #REMOVED}
+     */
+    public static int afterRemove(int position, int positionStart, int itemCount) {
+        if (position < positionStart) {
+            return position;
+        }
+        if (position < positionStart + itemCount) {
+            return REMOVED;
+        }
+        return position - itemCount;
+    }
+
+    /**
+     * 移动相当于先移除再在目标位置插入
+     *
+     * @param position     移动前的位置
+     * @param fromPosition 移动的起始位置
+     * @param toPosition   移动后第一个Item所在的位置
+     * @param itemCount    移动的Item数量
+     * @return 移动后的位置
+     */
+    public static int afterMove(int position, int fromPosition, int toPosition, int itemCount) {
+        if (position >= fromPosition && position < fromPosition + itemCount) {
+            return toPosition + position - fromPosition;
+        }
+        return afterInsert(afterRemove(position, fromPosition, itemCount), toPosition, itemCount);
+    }
+}
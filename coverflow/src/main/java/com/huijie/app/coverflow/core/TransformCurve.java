@@ -0,0 +1,88 @@
+package com.huijie.app.coverflow.core;
+
+/**
+ * 变换曲线
+ * <p>在测量完成后对曲线函数采样一次，滑动时只需要查表并线性插值，
+ * 避免每帧对每个Item重复计算除法和{@link Math#pow(double, double)}
+ */
+
+public class TransformCurve {
+
+    /**
+     * 最大采样数量
+     */
+    private static final int MAX_SAMPLE_COUNT = 4096;
+
+    /**
+     * 采样值
+     */
+    private float[] mSamples = new float[0];
+
+    /**
+     * 采样数量
+     */
+    private int mCount = 0;
+
+    /**
+     * 采样起点
+     */
+    private float mFrom = 0;
+
+    /**
+     * 采样间隔的倒数
+     */
+    private float mInvStep = 0;
+
+    /**
+     * 曲线函数
+     */
+    public interface Function {
+        /**
+         * @param x Item的偏移量
+         * @return 偏移量对应的变换值
+         */
+        float compute(float x);
+    }
+
+    /**
+     * 在区间[from, to]内对曲线函数采样，每个像素最多采样一次
+     *
+     * @param function 曲线函数
+     * @param from     区间起点
+     * @param to       区间终点
+     */
+    public void sample(Function function, float from, float to) {
+        int count = Math.min(MAX_SAMPLE_COUNT, Math.max(2, (int) Math.ceil(to - from) + 1));
+        if (mSamples.length < count) {
+            mSamples = new float[count];
+        }
+        float step = (to - from) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            mSamples[i] = function.compute(from + step * i);
+        }
+        mCount = count;
+        mFrom = from;
+        mInvStep = step > 0 ? 1 / step : 0;
+    }
+
+    /**
+     * 获取偏移量对应的变换值，超出采样区间时取端点值
+     *
+     * @param x Item的偏移量
+     */
+    public float valueAt(float x) {
+        if (mCount == 0) {
+            return 0;
+        }
+        float index = (x - mFrom) * mInvStep;
+        if (index <= 0) {
+            return mSamples[0];
+        }
+        int i = (int) index;
+        if (i >= mCount - 1) {
+            return mSamples[mCount - 1];
+        }
+        float fraction = index - i;
+        return mSamples[i] + (mSamples[i + 1] - mSamples[i]) * fraction;
+    }
+}
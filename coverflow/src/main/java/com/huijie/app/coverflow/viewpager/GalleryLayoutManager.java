@@ -1,8 +1,10 @@
-package com.huijie.app.testcoverflow.test;
+package com.huijie.app.coverflow.viewpager;
 
 import android.content.Context;
 import android.view.View;
 
+import com.huijie.app.coverflow.ItemTransform;
+
 /**
  * An implementation of {@link ViewPagerLayoutManager}
  * which will change rotate x or rotate y
@@ -139,32 +141,31 @@ public class GalleryLayoutManager extends ViewPagerLayoutManager {
     }
 
     @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
+    protected void setItemViewProperty(View itemView, float targetOffset, ItemTransform transform) {
         final float rotation = calRotation(targetOffset);
         if (getOrientation() == HORIZONTAL) {
             if (rotateFromEdge) {
-                itemView.setPivotX(rotation > 0 ? 0 : mDecoratedMeasurement);
-                itemView.setPivotY(mDecoratedMeasurementInOther * 0.5f);
+                transform.pivotX = rotation > 0 ? 0 : mDecoratedMeasurement;
+                transform.pivotY = mDecoratedMeasurementInOther * 0.5f;
             }
             if (flipRotate) {
-                itemView.setRotationX(rotation);
+                transform.rotationX = rotation;
             } else {
-                itemView.setRotationY(rotation);
+                transform.rotationY = rotation;
             }
         } else {
             if (rotateFromEdge) {
-                itemView.setPivotY(rotation > 0 ? 0 : mDecoratedMeasurement);
-                itemView.setPivotX(mDecoratedMeasurementInOther * 0.5f);
+                transform.pivotY = rotation > 0 ? 0 : mDecoratedMeasurement;
+                transform.pivotX = mDecoratedMeasurementInOther * 0.5f;
 
             }
             if (flipRotate) {
-                itemView.setRotationY(-rotation);
+                transform.rotationY = -rotation;
             } else {
-                itemView.setRotationX(-rotation);
+                transform.rotationX = -rotation;
             }
         }
-        final float alpha = calAlpha(targetOffset);
-        itemView.setAlpha(alpha);
+        transform.alpha = calAlpha(targetOffset);
     }
 
     @Override
@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package com.huijie.app.testcoverflow.test;
+package com.huijie.app.coverflow.viewpager;
 
 import android.graphics.Rect;
 import android.view.View;
@@ -1,4 +1,4 @@
-package com.huijie.app.testcoverflow.test;
+package com.huijie.app.coverflow.viewpager;
 
 import android.view.View;
 import androidx.recyclerview.widget.RecyclerView;
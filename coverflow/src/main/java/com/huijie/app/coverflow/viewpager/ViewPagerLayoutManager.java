@@ -1,8 +1,9 @@
-package com.huijie.app.testcoverflow.test;
+package com.huijie.app.coverflow.viewpager;
 
 import android.content.Context;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.Trace;
 import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,6 +12,12 @@ import android.view.animation.Interpolator;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.huijie.app.coverflow.ItemTransform;
+import com.huijie.app.coverflow.ItemTransformer;
+import com.huijie.app.coverflow.LayoutMetrics;
+import com.huijie.app.coverflow.MeasureCache;
+import com.huijie.app.coverflow.core.PagerPositions;
+
 import java.util.ArrayList;
 
 import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
@@ -36,10 +43,61 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
 
     private static final int DIRECTION_BACKWARD = 1;
 
+    private static final String TRACE_LAYOUT_ITEMS = "ViewPagerLayoutManager#layoutItems";
+
+    private static final String TRACE_OFFSET_ITEMS = "ViewPagerLayoutManager#offsetItems";
+
+    private static final String TRACE_LAYOUT_SCRAP = "ViewPagerLayoutManager#layoutScrap";
+
     protected static final int INVALID_SIZE = Integer.MAX_VALUE;
 
     private SparseArray<View> positionCache = new SparseArray<>();
 
+    private final MeasureCache measureCache = new MeasureCache();
+
+    private final LayoutMetrics metrics = new LayoutMetrics();
+
+    private LayoutMetrics.Listener metricsListener;
+
+    /**
+     * Whether the current pass is measured, only passes started while a listener is set are
+     */
+    private boolean collectMetrics = false;
+
+    private final ItemTransform itemTransform = new ItemTransform();
+
+    /**
+     * Replaces {@link #setItemViewProperty(View, float, ItemTransform)} if not null
+     */
+    private ItemTransformer itemTransformer;
+
+    /**
+     * Views fetched from the recycler during an incremental layout which have not been added yet
+     */
+    private final SparseArray<View> pendingViews = new SparseArray<>();
+
+    /**
+     * Layout positions in child order, filled from both ends while laying out
+     */
+    private int[] layoutOrder = new int[0];
+
+    /**
+     * Range of layout positions [mLayoutStart, mLayoutEnd) which may be attached
+     */
+    private int mLayoutStart;
+
+    private int mLayoutEnd;
+
+    /**
+     * Attached views indexed by layout position - {@link #mAttachedStart}, rebuilt after every layout
+     * so that looking up a view by position does not need to search {@link #positionCache}
+     */
+    private View[] attachedViews = new View[0];
+
+    private int mAttachedStart;
+
+    private int mAttachedCount;
+
     protected int mDecoratedMeasurement;
 
     protected int mDecoratedMeasurementInOther;
@@ -120,17 +178,34 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
      */
     private View currentFocusView;
 
+    /**
+     * Whether focus follows the current item, see {@link #setFocusTracking(boolean)}
+     */
+    private boolean mFocusTracking = true;
+
+    /**
+     * The layout position which focus was last moved to
+     */
+    private int mFocusedLayoutPosition = NO_POSITION;
+
+    private RecyclerView mRecyclerView;
+
     /**
      * @return the mInterval of each item's mOffset
      */
     protected abstract float setInterval();
 
-    protected abstract void setItemViewProperty(View itemView, float targetOffset);
+    /**
+     * Computes the properties of an item, only the ones which changed are written to the view.
+     * Not called if an {@link ItemTransformer} is set.
+     *
+     * @param transform identity values on input, see {@link ItemTransformer#transformItem(View, float, ItemTransform)}
+     */
+    protected abstract void setItemViewProperty(View itemView, float targetOffset, ItemTransform transform);
 
     /**
      * cause elevation is not support below api 21,
      * so you can set your elevation here for supporting it below api 21
-     * or you can just setElevation in {@link #setItemViewProperty(View, float)}
      */
     protected float setViewElevation(View itemView, float targetOffset) {
         return 0;
@@ -191,9 +266,16 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
         mRecycleChildrenOnDetach = recycleChildrenOnDetach;
     }
 
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        mRecyclerView = view;
+    }
+
     @Override
     public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
         super.onDetachedFromWindow(view, recycler);
+        mRecyclerView = null;
         if (mRecycleChildrenOnDetach) {
             removeAndRecycleAllViews(recycler);
             recycler.clear();
@@ -373,7 +455,16 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
 
     @Override
     public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        beginLayoutMetrics(LayoutMetrics.PASS_LAYOUT);
+        layoutChildren(recycler, state);
+        dispatchLayoutMetrics();
+    }
+
+    private void layoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
         if (state.getItemCount() == 0) {
+            if (collectMetrics) {
+                metrics.childrenRecycled += getChildCount();
+            }
             removeAndRecycleAllViews(recycler);
             mOffset = 0;
             return;
@@ -383,14 +474,20 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
         resolveShouldLayoutReverse();
 
         //make sure properties are correct while measure more than once
-        View scrap = getMeasureView(recycler, state, 0);
+        //all children have the same size, so an attached child can be measured instead of binding a new one
+        View scrap = getChildCount() > 0 ? getChildAt(0) : getMeasureView(recycler, state, 0);
         if (scrap == null) {
+            if (collectMetrics) {
+                metrics.childrenRecycled += getChildCount();
+            }
             removeAndRecycleAllViews(recycler);
             mOffset = 0;
             return;
         }
 
-        measureChildWithMargins(scrap, 0, 0);
+        if (measureCache.measureChildWithMargins(this, scrap) && collectMetrics) {
+            metrics.measures++;
+        }
         mDecoratedMeasurement = mOrientationHelper.getDecoratedMeasurement(scrap);
         mDecoratedMeasurementInOther = mOrientationHelper.getDecoratedMeasurementInOther(scrap);
         mSpaceMain = (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2;
@@ -429,6 +526,9 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
             return null;
         }
         try {
+            if (collectMetrics) {
+                metrics.viewsRequested++;
+            }
             return recycler.getViewForPosition(index);
         } catch (Exception e) {
             return getMeasureView(recycler, state, index + 1);
@@ -508,6 +608,8 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
     public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
         removeAllViews();
         mOffset = 0;
+        mFocusedLayoutPosition = NO_POSITION;
+        measureCache.clear();
     }
 
     @Override
@@ -629,20 +731,257 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
         mOffset += realDx;
 
         //handle recycle
-        layoutItems(recycler);
+        beginLayoutMetrics(LayoutMetrics.PASS_SCROLL);
+        offsetItems(recycler);
+        dispatchLayoutMetrics();
 
         return willScroll;
     }
 
     private void layoutItems(RecyclerView.Recycler recycler) {
+        Trace.beginSection(TRACE_LAYOUT_ITEMS);
+        if (collectMetrics) {
+            metrics.childrenScrapped += getChildCount();
+        }
         detachAndScrapAttachedViews(recycler);
         positionCache.clear();
+        currentFocusView = null;
 
         final int itemCount = getItemCount();
         if (itemCount == 0) {
+            updateViewIndex();
+            Trace.endSection();
+            return;
+        }
+
+        final int currentPos = updateLayoutRange(itemCount);
+
+        float lastOrderWeight = Float.MIN_VALUE;
+        for (int i = mLayoutStart; i < mLayoutEnd; i++) {
+            if (shouldLayout(i)) {
+                // start and end base on current position,
+                // so we need to calculate the adapter position
+                final int adapterPosition = PagerPositions.toAdapterPosition(i, itemCount);
+                final View scrap = recycler.getViewForPosition(adapterPosition);
+                if (collectMetrics) {
+                    metrics.viewsRequested++;
+                }
+                if (measureCache.measureChildWithMargins(this, scrap) && collectMetrics) {
+                    metrics.measures++;
+                }
+                // we need i to calculate the real offset of current view
+                final float targetOffset = getProperty(i) - mOffset;
+                layoutScrap(scrap, targetOffset);
+                final float orderWeight = mEnableBringCenterToFront ?
+                        setViewElevation(scrap, targetOffset) : adapterPosition;
+                if (orderWeight > lastOrderWeight) {
+                    addView(scrap);
+                } else {
+                    addView(scrap, 0);
+                }
+                if (collectMetrics) {
+                    metrics.childrenAdded++;
+                }
+                if (i == currentPos) {
+                    currentFocusView = scrap;
+                }
+                lastOrderWeight = orderWeight;
+                positionCache.put(i, scrap);
+            }
+        }
+        updateViewIndex();
+
+        moveFocusIfNeeded(currentPos, false);
+        Trace.endSection();
+    }
+
+    /**
+     * Lays out items after {@link #mOffset} changed while scrolling.
+     * Attached views stay attached and are only moved, views which leave the range between
+     * {@link #minRemoveOffset()} and {@link #maxRemoveOffset()} are recycled and only the views
+     * which enter it are fetched from the recycler. The child order is the same as
+     * {@link #layoutItems(RecyclerView.Recycler)} produces.
+     */
+    private void offsetItems(RecyclerView.Recycler recycler) {
+        final int itemCount = getItemCount();
+        if (itemCount == 0 || positionCache.size() != getChildCount()) {
+            layoutItems(recycler);
+            return;
+        }
+        Trace.beginSection(TRACE_OFFSET_ITEMS);
+
+        final int currentPos = updateLayoutRange(itemCount);
+        currentFocusView = null;
+
+        // recycle the views which are out of range
+        for (int i = positionCache.size() - 1; i >= 0; i--) {
+            if (!shouldLayout(positionCache.keyAt(i))) {
+                removeAndRecycleView(positionCache.valueAt(i), recycler);
+                positionCache.removeAt(i);
+                if (collectMetrics) {
+                    metrics.childrenRecycled++;
+                }
+            }
+        }
+
+        // move the attached views and fetch the new ones, the child order is collected from both ends
+        final int capacity = mLayoutEnd - mLayoutStart;
+        if (layoutOrder.length < capacity * 2) {
+            layoutOrder = new int[capacity * 2];
+        }
+        int head = capacity;
+        int tail = capacity;
+        float lastOrderWeight = Float.MIN_VALUE;
+        for (int i = mLayoutStart; i < mLayoutEnd; i++) {
+            if (!shouldLayout(i)) {
+                continue;
+            }
+            final int adapterPosition = PagerPositions.toAdapterPosition(i, itemCount);
+            View view = positionCache.get(i);
+            if (view == null) {
+                view = recycler.getViewForPosition(adapterPosition);
+                if (collectMetrics) {
+                    metrics.viewsRequested++;
+                }
+                if (measureCache.measureChildWithMargins(this, view) && collectMetrics) {
+                    metrics.measures++;
+                }
+                pendingViews.put(i, view);
+            }
+            final float targetOffset = getProperty(i) - mOffset;
+            layoutScrap(view, targetOffset);
+            final float orderWeight = mEnableBringCenterToFront ?
+                    setViewElevation(view, targetOffset) : adapterPosition;
+            if (orderWeight > lastOrderWeight) {
+                layoutOrder[tail++] = i;
+            } else {
+                layoutOrder[--head] = i;
+            }
+            if (i == currentPos) {
+                currentFocusView = view;
+            }
+            lastOrderWeight = orderWeight;
+        }
+
+        // add the new views and reorder the attached views only if their order changed
+        for (int i = head; i < tail; i++) {
+            final int index = i - head;
+            final int position = layoutOrder[i];
+            View view = positionCache.get(position);
+            if (view == null) {
+                view = pendingViews.get(position);
+                addView(view, index);
+                positionCache.put(position, view);
+                if (collectMetrics) {
+                    metrics.childrenAdded++;
+                }
+            } else if (getChildAt(index) != view) {
+                detachView(view);
+                attachView(view, index);
+            }
+        }
+        pendingViews.clear();
+        updateViewIndex();
+
+        moveFocusIfNeeded(currentPos, false);
+        Trace.endSection();
+    }
+
+    private void beginLayoutMetrics(int passType) {
+        collectMetrics = metricsListener != null;
+        if (collectMetrics) {
+            metrics.begin(passType);
+        }
+    }
+
+    private void dispatchLayoutMetrics() {
+        if (collectMetrics && metricsListener != null) {
+            metrics.end();
+            metricsListener.onLayoutPass(metrics);
+        }
+        collectMetrics = false;
+    }
+
+    /**
+     * Sets a listener which is called with the counters of every layout and scroll pass,
+     * see {@link LayoutMetrics}. Pass null to stop collecting.
+     */
+    public void setLayoutMetricsListener(LayoutMetrics.Listener listener) {
+        metricsListener = listener;
+    }
+
+    /**
+     * Sets a transformer which computes the item properties instead of
+     * {@link #setItemViewProperty(View, float, ItemTransform)}. Pass null to use the default one.
+     */
+    public void setItemTransformer(ItemTransformer transformer) {
+        assertNotInLayoutOrScroll(null);
+        if (itemTransformer == transformer) {
+            return;
+        }
+        itemTransformer = transformer;
+        requestLayout();
+    }
+
+    public ItemTransformer getItemTransformer() {
+        return itemTransformer;
+    }
+
+    /**
+     * Moves focus to the current item.
+     * Focus is moved only when the current position changed since the last time or when the
+     * scroll settles, and only if the RecyclerView has focus, so scrolling does not walk the
+     * focus hierarchy on every frame.
+     *
+     * @param currentPos current layout position
+     * @param force      move focus even if the current position did not change
+     */
+    private void moveFocusIfNeeded(int currentPos, boolean force) {
+        if (!mFocusTracking || currentFocusView == null) {
             return;
         }
+        if (!force && currentPos == mFocusedLayoutPosition) {
+            return;
+        }
+        if (mRecyclerView == null || !mRecyclerView.hasFocus()) {
+            return;
+        }
+        mFocusedLayoutPosition = currentPos;
+        if (!currentFocusView.hasFocus()) {
+            currentFocusView.requestFocus();
+        }
+    }
 
+    @Override
+    public void onScrollStateChanged(int state) {
+        super.onScrollStateChanged(state);
+        if (state == RecyclerView.SCROLL_STATE_IDLE && getItemCount() != 0) {
+            final int currentPos = mShouldReverseLayout ?
+                    -getCurrentPositionOffset() : getCurrentPositionOffset();
+            moveFocusIfNeeded(currentPos, true);
+        }
+    }
+
+    /**
+     * Sets whether focus follows the current item while the RecyclerView has focus.
+     * It is enabled by default.
+     *
+     * @param focusTracking true to move focus to the current item when it changes or the scroll settles
+     */
+    public void setFocusTracking(boolean focusTracking) {
+        mFocusTracking = focusTracking;
+    }
+
+    public boolean getFocusTracking() {
+        return mFocusTracking;
+    }
+
+    /**
+     * Calculates the range of layout positions which may be attached
+     *
+     * @return the current layout position
+     */
+    private int updateLayoutRange(int itemCount) {
         // make sure that current position start from 0 to 1
         final int currentPos = mShouldReverseLayout ?
                 -getCurrentPositionOffset() : getCurrentPositionOffset();
@@ -674,44 +1013,70 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
                 end = itemCount;
             }
         }
+        mLayoutStart = start;
+        mLayoutEnd = end;
+        return currentPos;
+    }
 
-        float lastOrderWeight = Float.MIN_VALUE;
-        for (int i = start; i < end; i++) {
-            if (useMaxVisibleCount() || !removeCondition(getProperty(i) - mOffset)) {
-                // start and end base on current position,
-                // so we need to calculate the adapter position
-                int adapterPosition = i;
-                if (i >= itemCount) {
-                    adapterPosition %= itemCount;
-                } else if (i < 0) {
-                    int delta = (-adapterPosition) % itemCount;
-                    if (delta == 0) {
-                        delta = itemCount;
-                    }
-                    adapterPosition = itemCount - delta;
-                }
-                final View scrap = recycler.getViewForPosition(adapterPosition);
-                measureChildWithMargins(scrap, 0, 0);
-                resetViewProperty(scrap);
-                // we need i to calculate the real offset of current view
-                final float targetOffset = getProperty(i) - mOffset;
-                layoutScrap(scrap, targetOffset);
-                final float orderWeight = mEnableBringCenterToFront ?
-                        setViewElevation(scrap, targetOffset) : adapterPosition;
-                if (orderWeight > lastOrderWeight) {
-                    addView(scrap);
-                } else {
-                    addView(scrap, 0);
-                }
-                if (i == currentPos) {
-                    currentFocusView = scrap;
-                }
-                lastOrderWeight = orderWeight;
-                positionCache.put(i, scrap);
+    /**
+     * Rebuilds {@link #attachedViews} from {@link #positionCache}
+     */
+    private void updateViewIndex() {
+        final int count = Math.max(0, mLayoutEnd - mLayoutStart);
+        for (int i = 0; i < mAttachedCount; i++) {
+            attachedViews[i] = null;
+        }
+        if (attachedViews.length < count) {
+            attachedViews = new View[count];
+        }
+        mAttachedStart = mLayoutStart;
+        mAttachedCount = positionCache.size() == 0 ? 0 : count;
+        for (int i = 0; i < positionCache.size(); i++) {
+            final int index = positionCache.keyAt(i) - mAttachedStart;
+            if (index >= 0 && index < mAttachedCount) {
+                attachedViews[index] = positionCache.valueAt(i);
             }
         }
+    }
 
-        currentFocusView.requestFocus();
+    /**
+     * Finds the smallest layout position whose attached view matches the adapter position.
+     * In infinite mode there is only one candidate per round of items, so it takes constant time
+     * unless the visible items wrap around the adapter more than once.
+     *
+     * @param view the view to match, or null to match any attached view
+     * @return the layout position, or {@link RecyclerView#NO_POSITION} if not attached
+     */
+    private int findLayoutPosition(int adapterPosition, View view) {
+        final int itemCount = getItemCount();
+        if (itemCount == 0 || mAttachedCount == 0) {
+            return NO_POSITION;
+        }
+        int layoutPosition = adapterPosition;
+        if (mInfinite) {
+            int delta = (adapterPosition - mAttachedStart) % itemCount;
+            if (delta < 0) {
+                delta += itemCount;
+            }
+            layoutPosition = mAttachedStart + delta;
+        }
+        final int end = mAttachedStart + mAttachedCount;
+        while (layoutPosition >= mAttachedStart && layoutPosition < end) {
+            final View attached = attachedViews[layoutPosition - mAttachedStart];
+            if (attached != null && (view == null || attached == view)) {
+                return layoutPosition;
+            }
+            if (!mInfinite) {
+                break;
+            }
+            layoutPosition += itemCount;
+        }
+        return NO_POSITION;
+    }
+
+    private boolean shouldLayout(int layoutPosition) {
+        return layoutPosition >= mLayoutStart && layoutPosition < mLayoutEnd
+                && (useMaxVisibleCount() || !removeCondition(getProperty(layoutPosition) - mOffset));
     }
 
     private boolean useMaxVisibleCount() {
@@ -722,15 +1087,6 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
         return targetOffset > maxRemoveOffset() || targetOffset < minRemoveOffset();
     }
 
-    private void resetViewProperty(View v) {
-        v.setRotation(0);
-        v.setRotationY(0);
-        v.setRotationX(0);
-        v.setScaleX(1f);
-        v.setScaleY(1f);
-        v.setAlpha(1f);
-    }
-
     /* package */ float getMaxOffset() {
         return !mShouldReverseLayout ? (getItemCount() - 1) * mInterval : 0;
     }
@@ -740,6 +1096,7 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
     }
 
     private void layoutScrap(View scrap, float targetOffset) {
+        Trace.beginSection(TRACE_LAYOUT_SCRAP);
         final int left = calItemLeft(scrap, targetOffset);
         final int top = calItemTop(scrap, targetOffset);
         if (mOrientation == VERTICAL) {
@@ -749,7 +1106,18 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
             layoutDecorated(scrap, mSpaceMain + left, mSpaceInOther + top,
                     mSpaceMain + left + mDecoratedMeasurement, mSpaceInOther + top + mDecoratedMeasurementInOther);
         }
-        setItemViewProperty(scrap, targetOffset);
+        itemTransform.reset();
+        if (itemTransformer != null) {
+            itemTransformer.transformItem(scrap, targetOffset, itemTransform);
+        } else {
+            setItemViewProperty(scrap, targetOffset, itemTransform);
+        }
+        int writes = itemTransform.applyTo(scrap);
+        if (collectMetrics) {
+            metrics.propertyWrites += writes;
+            metrics.effectsApplied++;
+        }
+        Trace.endSection();
     }
 
     protected int calItemLeft(View itemView, float targetOffset) {
@@ -781,67 +1149,28 @@ public abstract class ViewPagerLayoutManager extends LinearLayoutManager {
     }
 
     public int getCurrentPosition() {
-        if (getItemCount() == 0) {
-            return 0;
-        }
-
-        int position = getCurrentPositionOffset();
-        if (!mInfinite) {
-            return Math.abs(position);
-        }
-
-        position = !mShouldReverseLayout ?
-                //take care of position = getItemCount()
-                (position >= 0 ?
-                        position % getItemCount() :
-                        getItemCount() + position % getItemCount()) :
-                (position > 0 ?
-                        getItemCount() - position % getItemCount() :
-                        -position % getItemCount());
-        return position == getItemCount() ? 0 : position;
+        return PagerPositions.getCurrentPosition(getCurrentPositionOffset(), getItemCount(),
+                mInfinite, mShouldReverseLayout);
     }
 
     @Override
     public View findViewByPosition(int position) {
-        final int itemCount = getItemCount();
-        if (itemCount == 0) {
-            return null;
-        }
-        for (int i = 0; i < positionCache.size(); i++) {
-            final int key = positionCache.keyAt(i);
-            if (key >= 0) {
-                if (position == key % itemCount) {
-                    return positionCache.valueAt(i);
-                }
-            } else {
-                int delta = key % itemCount;
-                if (delta == 0) {
-                    delta = -itemCount;
-                }
-                if (itemCount + delta == position) {
-                    return positionCache.valueAt(i);
-                }
-            }
-        }
-        return null;
+        final int layoutPosition = findLayoutPosition(position, null);
+        return layoutPosition == NO_POSITION ? null : attachedViews[layoutPosition - mAttachedStart];
     }
 
     public int getLayoutPositionOfView(View v) {
-        for (int i = 0; i < positionCache.size(); i++) {
-            int key = positionCache.keyAt(i);
-            View value = positionCache.get(key);
-            if (value == v) {
-                return key;
-            }
+        final ViewGroup.LayoutParams lp = v.getLayoutParams();
+        if (!(lp instanceof RecyclerView.LayoutParams)) {
+            return -1;
         }
-        return -1;
+        final int layoutPosition = findLayoutPosition(
+                ((RecyclerView.LayoutParams) lp).getViewLayoutPosition(), v);
+        return layoutPosition == NO_POSITION ? -1 : layoutPosition;
     }
 
     /* package */ int getCurrentPositionOffset() {
-        if (mInterval == 0) {
-            return 0;
-        }
-        return Math.round(mOffset / mInterval);
+        return PagerPositions.getCurrentPositionOffset(mOffset, mInterval);
     }
 
     /**
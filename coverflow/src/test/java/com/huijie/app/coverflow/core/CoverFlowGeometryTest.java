@@ -0,0 +1,280 @@
+package com.huijie.app.coverflow.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link CoverFlowGeometry} against naive linear scans over random item sizes.
+ * <p>
+ * Sizes are even and the interval ratios are multiples of 1/4, so every offset is exact in float
+ * and the results can be compared without tolerance. Adjacent sizes differ by less than 3x so the
+ * item frames are monotonic, which is what the visible range search assumes.
+ */
+public class CoverFlowGeometryTest {
+
+    private static final float[] RATIOS = {0.5f, 0.75f, 1f, 1.25f};
+
+    private static final int SPACE = 1080;
+
+    private static final int SPACE_IN_OTHER = 600;
+
+    private static final int ROUNDS = 300;
+
+    @Test
+    public void uniformCenterPosition() {
+        CoverFlowGeometry geometry = new CoverFlowGeometry();
+        geometry.set(SPACE, SPACE_IN_OTHER, 200, 300, 0.5f, 50);
+        assertEquals(0, geometry.getCenterPosition(50));
+        assertEquals(1, geometry.getCenterPosition(51));
+        assertEquals(49, geometry.getCenterPosition(4900));
+        assertEquals(4900, geometry.getOffsetForPosition(49));
+        assertEquals(SPACE / 2 - 100 + 4900, geometry.getFrameStart(49));
+        assertEquals(150, geometry.getFrameStartInOther(49));
+    }
+
+    @Test
+    public void largeOffsetsStayExact() {
+        //offsets past 2^24 px, where float can not hold every integer
+        int count = 10000000;
+        CoverFlowGeometry geometry = new CoverFlowGeometry();
+        geometry.set(SPACE, SPACE_IN_OTHER, 202, 300, 0.75f, count);
+        Random random = new Random(26);
+        for (int i = 0; i < 1000; i++) {
+            int position = count - 1 - random.nextInt(count / 2);
+            int expected = (int) Math.round(position * 151.5);
+            assertEquals(expected, geometry.getOffsetForPosition(position));
+            assertEquals(SPACE / 2 - 101 + expected, geometry.getFrameStart(position));
+            assertEquals(position, geometry.getCenterPosition(expected));
+            assertEquals(position, geometry.getFloorPosition(expected));
+            assertEquals(position - 1, geometry.getFloorPosition(expected - 1));
+        }
+
+        //a long infinite scroll over a small adapter with different sizes
+        geometry.set(SPACE, SPACE_IN_OTHER, 200, 300, 0.75f, 7);
+        geometry.setLooping(true);
+        geometry.setItemSize(3, 250, 300);
+        int loopOffset = geometry.getLoopOffset();
+        assertEquals(1088, loopOffset);
+        for (int i = 0; i < 1000; i++) {
+            int loop = 100000 + random.nextInt(900000);
+            int position = loop * 7 + random.nextInt(7);
+            int expected = loop * loopOffset + geometry.getOffsetForPosition(position - loop * 7);
+            assertEquals(expected, geometry.getOffsetForPosition(position));
+            assertEquals(position, geometry.getCenterPosition(expected));
+            assertEquals(position, geometry.getFloorPosition(expected));
+            assertEquals(position - 1, geometry.getFloorPosition(expected - 1));
+        }
+    }
+
+    @Test
+    public void randomLinearGeometryMatchesNaive() {
+        Random random = new Random(22);
+        for (int round = 0; round < ROUNDS; round++) {
+            Model model = new Model(random, false);
+            int maxOffset = model.geometry.getOffsetForPosition(model.count - 1);
+            for (int i = 0; i < 100; i++) {
+                int offset = random.nextInt(maxOffset + 1);
+                model.assertOffset(offset);
+            }
+        }
+    }
+
+    @Test
+    public void randomLoopingGeometryMatchesNaive() {
+        Random random = new Random(23);
+        for (int round = 0; round < ROUNDS; round++) {
+            Model model = new Model(random, true);
+            int loopOffset = model.geometry.getLoopOffset();
+            assertEquals(Math.round(model.linearOffset(model.count)), loopOffset);
+            for (int i = 0; i < 100; i++) {
+                int offset = random.nextInt(6 * loopOffset + 1) - 3 * loopOffset;
+                model.assertOffset(offset);
+            }
+        }
+    }
+
+    @Test
+    public void nearestPositionWrapsTheShortWay() {
+        Random random = new Random(24);
+        for (int round = 0; round < ROUNDS; round++) {
+            Model model = new Model(random, true);
+            int center = random.nextInt(1000) - 500;
+            int position = random.nextInt(model.count);
+            int nearest = model.geometry.getNearestPosition(position, center, model.count);
+            assertEquals(position, model.geometry.toAdapterPosition(nearest));
+            assertTrue(Math.abs(nearest - center) <= model.count / 2);
+        }
+    }
+
+    @Test
+    public void snapPositionFollowsTheFling() {
+        Random random = new Random(25);
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean looping = random.nextBoolean();
+            Model model = new Model(random, looping);
+            CoverFlowGeometry geometry = model.geometry;
+            int count = model.count;
+            int maxOffset = looping ? 3 * geometry.getLoopOffset()
+                    : geometry.getOffsetForPosition(count - 1);
+            for (int i = 0; i < 50; i++) {
+                int offset = random.nextInt(maxOffset + 1);
+                int velocity = random.nextInt(3) - 1;
+                int distance = velocity * random.nextInt(2 * maxOffset + 1);
+                int target = geometry.getSnapPosition(offset, distance, velocity, count);
+                assertTrue(target >= 0 && target < count);
+                if (looping && count < 3) {
+                    continue;
+                }
+
+                int center = geometry.getCenterPosition(offset);
+                int virtual = looping ? geometry.getNearestPosition(target, center, count) : target;
+                int targetOffset = geometry.getOffsetForPosition(virtual);
+                if (velocity > 0 && (looping || virtual < count - 1)) {
+                    assertTrue(targetOffset > offset);
+                } else if (velocity < 0 && (looping || virtual > 0)) {
+                    assertTrue(targetOffset < offset);
+                }
+                if (looping) {
+                    assertTrue(Math.abs(virtual - center) <= Math.max(1, (count - 1) / 2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void drawingOrderDrawsTheCenterLast() {
+        int[] order = new int[7];
+        CoverFlowGeometry.computeDrawingOrder(order, 7, 2);
+        assertEquals(6, order[2]);
+        boolean[] drawn = new boolean[7];
+        for (int i = 0; i < 7; i++) {
+            drawn[order[i]] = true;
+        }
+        for (boolean b : drawn) {
+            assertTrue(b);
+        }
+    }
+
+    /**
+     * Random item sizes and the geometry built from them
+     */
+    private static class Model {
+        final CoverFlowGeometry geometry = new CoverFlowGeometry();
+        final int count;
+        final int[] sizes;
+        final int[] sizesInOther;
+        final long[] prefix;
+        final float ratio;
+        final boolean looping;
+
+        Model(Random random, boolean looping) {
+            this.looping = looping;
+            count = 1 + random.nextInt(200);
+            ratio = RATIOS[random.nextInt(RATIOS.length)];
+            sizes = new int[count];
+            sizesInOther = new int[count];
+            prefix = new long[count + 1];
+            geometry.set(SPACE, SPACE_IN_OTHER, 200, 300, ratio, count);
+            geometry.setLooping(looping);
+            boolean uniform = random.nextInt(4) == 0;
+            for (int i = 0; i < count; i++) {
+                sizes[i] = uniform ? 200 : 150 + 2 * random.nextInt(126);
+                sizesInOther[i] = uniform ? 300 : 100 + random.nextInt(400);
+                geometry.setItemSize(i, sizes[i], sizesInOther[i]);
+                prefix[i + 1] = prefix[i] + sizes[i];
+            }
+        }
+
+        int size(int position) {
+            return sizes[mod(position, count)];
+        }
+
+        float linearOffset(int position) {
+            int size = position < count ? sizes[position] : sizes[0];
+            return ratio * (prefix[position] + (size - sizes[0]) / 2f);
+        }
+
+        float exactOffset(int position) {
+            if (!looping) {
+                return linearOffset(position);
+            }
+            int loop = (int) Math.floor(position / (double) count);
+            return (float) loop * Math.round(linearOffset(count))
+                    + linearOffset(position - loop * count);
+        }
+
+        int frameStart(int position) {
+            return Math.round((SPACE - size(position)) / 2f) + Math.round(exactOffset(position));
+        }
+
+        int frameEnd(int position) {
+            return frameStart(position) + size(position);
+        }
+
+        int lowest() {
+            return looping ? -4 * count - 32 : 0;
+        }
+
+        int highest() {
+            return looping ? 4 * count + 32 : count - 1;
+        }
+
+        int floorPosition(int offset) {
+            int position = lowest();
+            while (position < highest() && exactOffset(position + 1) <= offset) {
+                position++;
+            }
+            return position;
+        }
+
+        int centerPosition(int offset) {
+            int position = floorPosition(offset);
+            if (looping || position < count - 1) {
+                float start = exactOffset(position);
+                float end = exactOffset(position + 1);
+                if (offset - start > (end - start) * 0.5f) {
+                    position++;
+                }
+            }
+            return position;
+        }
+
+        int firstVisible(int offset) {
+            int position = lowest();
+            while (position < highest() && frameEnd(position) <= offset) {
+                position++;
+            }
+            return position;
+        }
+
+        int lastVisible(int offset) {
+            int position = highest();
+            while (position > lowest() && frameStart(position) >= offset + SPACE) {
+                position--;
+            }
+            return position;
+        }
+
+        void assertOffset(int offset) {
+            String at = "offset " + offset + ", count " + count + ", ratio " + ratio;
+            assertEquals(at, floorPosition(offset), geometry.getFloorPosition(offset));
+            int center = centerPosition(offset);
+            assertEquals(at, center, geometry.getCenterPosition(offset));
+            assertEquals(at, Math.round(exactOffset(center)), geometry.getOffsetForPosition(center));
+            assertEquals(at, mod(center, count), geometry.toAdapterPosition(center));
+            assertEquals(at, frameStart(center), geometry.getFrameStart(center));
+            assertEquals(at, sizesInOther[mod(center, count)], geometry.getItemSizeInOther(center));
+            assertEquals(at, firstVisible(offset), geometry.getFirstVisiblePosition(offset, SPACE, count));
+            assertEquals(at, lastVisible(offset), geometry.getLastVisiblePosition(offset, SPACE, count));
+        }
+    }
+
+    private static int mod(int value, int count) {
+        int result = value % count;
+        return result < 0 ? result + count : result;
+    }
+}
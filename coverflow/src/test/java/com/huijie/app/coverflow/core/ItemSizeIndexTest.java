@@ -0,0 +1,139 @@
+package com.huijie.app.coverflow.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link ItemSizeIndex} against a plain list of sizes after random updates.
+ */
+public class ItemSizeIndexTest {
+
+    private static final int DEFAULT_SIZE = 200;
+
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void uniformSizesAllocateNothing() {
+        ItemSizeIndex index = new ItemSizeIndex();
+        index.setDefaultSize(DEFAULT_SIZE, 100);
+        index.setCount(Integer.MAX_VALUE / DEFAULT_SIZE);
+
+        assertFalse(index.setSize(5, DEFAULT_SIZE, 100));
+        assertTrue(index.isUniform());
+        assertEquals(7L * DEFAULT_SIZE, index.getPrefixSize(7));
+        assertEquals(7, index.findPosition(7L * DEFAULT_SIZE + DEFAULT_SIZE - 1));
+        assertEquals(0, index.findPosition(-1));
+    }
+
+    @Test
+    public void randomUpdatesMatchNaiveSums() {
+        Random random = new Random(22);
+        for (int round = 0; round < ROUNDS; round++) {
+            int count = 1 + random.nextInt(300);
+            ItemSizeIndex index = new ItemSizeIndex();
+            index.setDefaultSize(DEFAULT_SIZE, 100);
+            index.setCount(count);
+            List<Integer> sizes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                sizes.add(DEFAULT_SIZE);
+            }
+
+            for (int step = 0; step < 50; step++) {
+                int op = random.nextInt(10);
+                if (op < 6 && !sizes.isEmpty()) {
+                    int position = random.nextInt(sizes.size());
+                    int size = 1 + random.nextInt(2 * DEFAULT_SIZE);
+                    boolean changed = index.setSize(position, size, 100);
+                    assertEquals(sizes.get(position) != size, changed);
+                    sizes.set(position, size);
+                } else if (op < 8) {
+                    int position = random.nextInt(sizes.size() + 1);
+                    int n = 1 + random.nextInt(5);
+                    index.insert(position, n);
+                    for (int i = 0; i < n; i++) {
+                        sizes.add(position, DEFAULT_SIZE);
+                    }
+                } else if (op < 9 && !sizes.isEmpty()) {
+                    int position = random.nextInt(sizes.size());
+                    int n = Math.min(1 + random.nextInt(5), sizes.size() - position);
+                    index.remove(position, n);
+                    sizes.subList(position, position + n).clear();
+                } else if (sizes.size() > 1) {
+                    int n = 1 + random.nextInt(Math.min(5, sizes.size() - 1));
+                    int from = random.nextInt(sizes.size() - n + 1);
+                    int to = random.nextInt(sizes.size() - n + 1);
+                    index.move(from, to, n);
+                    List<Integer> moved = new ArrayList<>(sizes.subList(from, from + n));
+                    sizes.subList(from, from + n).clear();
+                    sizes.addAll(to, moved);
+                }
+                assertMatches(sizes, index, random);
+            }
+        }
+    }
+
+    @Test
+    public void shrinkAndGrowForgetsRemovedSizes() {
+        ItemSizeIndex index = new ItemSizeIndex();
+        index.setDefaultSize(DEFAULT_SIZE, 100);
+        index.setCount(1000);
+        for (int i = 0; i < 1000; i++) {
+            index.setSize(i, DEFAULT_SIZE + 1 + i % 7, 100 + i);
+        }
+        index.setCount(10);
+        index.remove(2, 3);
+        index.setCount(1000);
+        index.insert(1, 500);
+
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sizes.add(DEFAULT_SIZE + 1 + i % 7);
+        }
+        sizes.subList(2, 5).clear();
+        while (sizes.size() < 1000) {
+            sizes.add(DEFAULT_SIZE);
+        }
+        for (int i = 0; i < 500; i++) {
+            sizes.add(1, DEFAULT_SIZE);
+        }
+        assertMatches(sizes, index, new Random(23));
+        assertEquals(100, index.getSizeInOther(1499));
+    }
+
+    private static void assertMatches(List<Integer> sizes, ItemSizeIndex index, Random random) {
+        assertEquals(sizes.size(), index.getCount());
+        long prefix = 0;
+        for (int i = 0; i < sizes.size(); i++) {
+            assertEquals(sizes.get(i).intValue(), index.getSize(i));
+            assertEquals(prefix, index.getPrefixSize(i));
+            prefix += sizes.get(i);
+        }
+        assertEquals(prefix, index.getPrefixSize(sizes.size()));
+
+        for (int i = 0; i < 20 && !sizes.isEmpty(); i++) {
+            long query = (long) (random.nextDouble() * (prefix + DEFAULT_SIZE));
+            assertEquals("findPosition(" + query + ")",
+                    naiveFindPosition(sizes, query), index.findPosition(query));
+        }
+    }
+
+    private static int naiveFindPosition(List<Integer> sizes, long prefix) {
+        int position = 0;
+        long sum = 0;
+        for (int i = 0; i < sizes.size(); i++) {
+            if (sum > prefix) {
+                break;
+            }
+            position = i;
+            sum += sizes.get(i);
+        }
+        return position;
+    }
+}
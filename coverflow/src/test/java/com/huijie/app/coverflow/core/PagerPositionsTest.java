@@ -0,0 +1,55 @@
+package com.huijie.app.coverflow.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks {@link PagerPositions} against plain modulo arithmetic.
+ */
+public class PagerPositionsTest {
+
+    private static final int ROUNDS = 100000;
+
+    @Test
+    public void toAdapterPositionWrapsBothWays() {
+        Random random = new Random(22);
+        for (int i = 0; i < ROUNDS; i++) {
+            int itemCount = 1 + random.nextInt(50);
+            int layoutPosition = random.nextInt(2001) - 1000;
+            assertEquals(mod(layoutPosition, itemCount),
+                    PagerPositions.toAdapterPosition(layoutPosition, itemCount));
+        }
+    }
+
+    @Test
+    public void currentPositionOffsetRoundsToNearest() {
+        assertEquals(0, PagerPositions.getCurrentPositionOffset(100, 0));
+        assertEquals(0, PagerPositions.getCurrentPositionOffset(49.9f, 100));
+        assertEquals(1, PagerPositions.getCurrentPositionOffset(50, 100));
+        assertEquals(-2, PagerPositions.getCurrentPositionOffset(-150.1f, 100));
+    }
+
+    @Test
+    public void currentPositionMatchesModulo() {
+        Random random = new Random(23);
+        for (int i = 0; i < ROUNDS; i++) {
+            int itemCount = 1 + random.nextInt(50);
+            int positionOffset = random.nextInt(2001) - 1000;
+            assertEquals(mod(positionOffset, itemCount),
+                    PagerPositions.getCurrentPosition(positionOffset, itemCount, true, false));
+            assertEquals(mod(-positionOffset, itemCount),
+                    PagerPositions.getCurrentPosition(positionOffset, itemCount, true, true));
+            assertEquals(Math.abs(positionOffset),
+                    PagerPositions.getCurrentPosition(positionOffset, itemCount, false, false));
+        }
+        assertEquals(0, PagerPositions.getCurrentPosition(5, 0, true, false));
+    }
+
+    private static int mod(int value, int count) {
+        int result = value % count;
+        return result < 0 ? result + count : result;
+    }
+}
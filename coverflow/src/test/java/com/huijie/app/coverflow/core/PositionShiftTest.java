@@ -0,0 +1,89 @@
+package com.huijie.app.coverflow.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks {@link PositionShift} against applying the same change to a list of items.
+ */
+public class PositionShiftTest {
+
+    private static final int ROUNDS = 20000;
+
+    @Test
+    public void insertShiftsFollowingItems() {
+        Random random = new Random(25);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Integer> items = items(1 + random.nextInt(30));
+            List<Integer> before = new ArrayList<>(items);
+            int start = random.nextInt(items.size() + 1);
+            int count = 1 + random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                items.add(start, -1);
+            }
+            for (int position = 0; position < before.size(); position++) {
+                assertEquals(items.indexOf(before.get(position)),
+                        PositionShift.afterInsert(position, start, count));
+            }
+        }
+    }
+
+    @Test
+    public void removeDropsRemovedItems() {
+        Random random = new Random(26);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Integer> items = items(1 + random.nextInt(30));
+            List<Integer> before = new ArrayList<>(items);
+            int start = random.nextInt(items.size());
+            int count = 1 + random.nextInt(items.size() - start);
+            items.subList(start, start + count).clear();
+            for (int position = 0; position < before.size(); position++) {
+                int expected = items.indexOf(before.get(position));
+                assertEquals(expected < 0 ? PositionShift.REMOVED : expected,
+                        PositionShift.afterRemove(position, start, count));
+            }
+        }
+    }
+
+    @Test
+    public void moveMatchesRemoveAndInsert() {
+        Random random = new Random(27);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Integer> items = items(1 + random.nextInt(30));
+            List<Integer> before = new ArrayList<>(items);
+            int from = random.nextInt(items.size());
+            int count = 1 + random.nextInt(items.size() - from);
+            List<Integer> moved = new ArrayList<>(items.subList(from, from + count));
+            items.subList(from, from + count).clear();
+            int to = random.nextInt(items.size() + 1);
+            items.addAll(to, moved);
+            for (int position = 0; position < before.size(); position++) {
+                assertEquals(items.indexOf(before.get(position)),
+                        PositionShift.afterMove(position, from, to, count));
+            }
+        }
+    }
+
+    @Test
+    public void singleMoveLikeNotifyItemMoved() {
+        //notifyItemMoved(1, 3): [a, b, c, d, e] -> [a, c, d, b, e]
+        assertEquals(0, PositionShift.afterMove(0, 1, 3, 1));
+        assertEquals(3, PositionShift.afterMove(1, 1, 3, 1));
+        assertEquals(1, PositionShift.afterMove(2, 1, 3, 1));
+        assertEquals(2, PositionShift.afterMove(3, 1, 3, 1));
+        assertEquals(4, PositionShift.afterMove(4, 1, 3, 1));
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+}